@@ -7,10 +7,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -39,9 +41,20 @@ public class CategoryController {
 
     @GetMapping
     @Operation(summary = "list all active categories", description = "retrieves all active product categories")
-    public ResponseEntity<List<CategoryResponse>> findAll() {
+    public ResponseEntity<List<CategoryResponse>> findAll(WebRequest request) {
+        // the version is read before the list, so a change landing in between makes the etag
+        // older than the body and the next request gets a fresh copy instead of a wrong 304
+        CategoryService.ListVersion version = categoryService.getActiveListVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         List<CategoryResponse> response = categoryService.findAllActive();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(response);
     }
 
     @GetMapping("/all")
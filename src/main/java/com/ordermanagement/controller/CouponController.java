@@ -0,0 +1,48 @@
+package com.ordermanagement.controller;
+
+import com.ordermanagement.dto.coupon.CouponResponse;
+import com.ordermanagement.dto.coupon.CreateCouponRequest;
+import com.ordermanagement.service.CouponService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/coupons")
+@RequiredArgsConstructor
+@Tag(name = "Coupons", description = "discount coupon management endpoints")
+public class CouponController {
+
+    private final CouponService couponService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "create a new coupon", description = "creates a discount coupon usable at checkout")
+    public ResponseEntity<CouponResponse> create(@Valid @RequestBody CreateCouponRequest request) {
+        CouponResponse response = couponService.create(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "list all coupons", description = "retrieves all coupons including inactive ones")
+    public ResponseEntity<List<CouponResponse>> findAll() {
+        List<CouponResponse> response = couponService.findAll();
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "deactivate a coupon", description = "stops a coupon from being accepted at checkout")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        couponService.deactivate(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,22 +1,41 @@
 package com.ordermanagement.controller;
 
 import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.dto.common.CursorPageResponse;
 import com.ordermanagement.dto.common.PageResponse;
+import com.ordermanagement.dto.order.BatchOrderResponse;
+import com.ordermanagement.dto.order.CreateOrderBatchRequest;
 import com.ordermanagement.dto.order.CreateOrderRequest;
+import com.ordermanagement.dto.order.OrderIntakeResponse;
 import com.ordermanagement.dto.order.OrderResponse;
 import com.ordermanagement.dto.order.UpdateOrderStatusRequest;
+import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.service.IdempotencyService;
+import com.ordermanagement.service.OrderEventStream;
+import com.ordermanagement.service.OrderExportService;
+import com.ordermanagement.service.OrderIntakeService;
 import com.ordermanagement.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -24,13 +43,58 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Orders", description = "order management endpoints")
 public class OrderController {
 
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderExportService orderExportService;
+    private final OrderEventStream orderEventStream;
+    private final Optional<OrderIntakeService> orderIntakeService;
 
     @PostMapping
-    @Operation(summary = "create a new order", description = "creates a new order for the current customer")
-    public ResponseEntity<OrderResponse> create(@Valid @RequestBody CreateOrderRequest request) {
-        OrderResponse response = orderService.create(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    @Operation(summary = "create a new order", description = "creates a new order for the current customer. " +
+            "retries sent with the same Idempotency-Key header get the original response back. " +
+            "in async intake mode the order is queued and 202 is returned with a status url")
+    public ResponseEntity<?> create(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        if (orderIntakeService.isPresent()) {
+            IdempotencyService.Result<OrderIntakeResponse> result = idempotencyService.execute(
+                    "orders", idempotencyKey, request, OrderIntakeResponse.class, () -> orderIntakeService.get().submit(request));
+            return ResponseEntity.accepted()
+                    .location(URI.create(result.getBody().getStatusUrl()))
+                    .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                    .body(result.getBody());
+        }
+
+        IdempotencyService.Result<OrderResponse> result = idempotencyService.execute(
+                "orders", idempotencyKey, request, OrderResponse.class, () -> orderService.create(request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "create orders in bulk", description = "creates many orders for the current customer in one request. " +
+            "each order is reported individually, so some can fail while the rest are created")
+    public ResponseEntity<BatchOrderResponse> createBatch(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderBatchRequest request) {
+        IdempotencyService.Result<BatchOrderResponse> result = idempotencyService.execute(
+                "orders-batch", idempotencyKey, request, BatchOrderResponse.class,
+                () -> orderService.createBatch(request.getOrders()));
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
+    }
+
+    @GetMapping("/intake/{ticketId}")
+    @Operation(summary = "get order intake status", description = "retrieves the status of an order accepted in async intake mode")
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(@PathVariable String ticketId) {
+        OrderIntakeService intake = orderIntakeService
+                .orElseThrow(() -> new ResourceNotFoundException("Order intake ticket", "id", ticketId));
+        return ResponseEntity.ok(intake.getStatus(ticketId));
     }
 
     @GetMapping("/{id}")
@@ -48,32 +112,95 @@ public class OrderController {
     }
 
     @GetMapping("/my-orders")
-    @Operation(summary = "list my orders", description = "retrieves all orders for the current customer")
-    public ResponseEntity<PageResponse<OrderResponse>> findMyOrders(
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        PageResponse<OrderResponse> response = orderService.findMyOrders(pageable);
+    @Operation(summary = "list my orders", description = "retrieves all orders for the current customer, " +
+            "archived ones included, newest first. view=summary returns only number, status, total, customer name, " +
+            "item count and date")
+    public ResponseEntity<PageResponse<?>> findMyOrders(
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @PageableDefault(size = 10) Pageable pageable) {
+        PageResponse<?> response = isSummary(view)
+                ? orderService.findMyOrderSummaries(pageable)
+                : orderService.findMyOrders(pageable);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    @Operation(summary = "list all orders", description = "retrieves all orders (admin only)")
-    public ResponseEntity<PageResponse<OrderResponse>> findAll(
+    @Operation(summary = "list all orders", description = "retrieves all orders (admin only). " +
+            "view=summary returns only number, status, total, customer name, item count and date")
+    public ResponseEntity<PageResponse<?>> findAll(
+            @RequestParam(defaultValue = VIEW_FULL) String view,
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        PageResponse<OrderResponse> response = orderService.findAll(pageable);
+        PageResponse<?> response = isSummary(view)
+                ? orderService.findAllSummaries(pageable)
+                : orderService.findAll(pageable);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "list all orders by cursor", description = "retrieves all orders newest first (admin only). " +
+            "pass the returned nextCursor to get the following page; no total count is computed")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> findAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<OrderResponse> response = orderService.findAll(cursor, size);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    @Operation(summary = "list orders by status", description = "retrieves orders filtered by status")
-    public ResponseEntity<PageResponse<OrderResponse>> findByStatus(
+    @Operation(summary = "list orders by status", description = "retrieves orders filtered by status. " +
+            "view=summary returns only number, status, total, customer name, item count and date")
+    public ResponseEntity<PageResponse<?>> findByStatus(
             @PathVariable OrderStatus status,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
             @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<OrderResponse> response = orderService.findByStatus(status, pageable);
+        PageResponse<?> response = isSummary(view)
+                ? orderService.findSummariesByStatus(status, pageable)
+                : orderService.findByStatus(status, pageable);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/status/{status}/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "list orders by status by cursor", description = "retrieves orders filtered by status, newest first. " +
+            "pass the returned nextCursor to get the following page; no total count is computed")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> findByStatusByCursor(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<OrderResponse> response = orderService.findByStatus(status, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "export orders", description = "streams every order created between two dates (inclusive) " +
+            "as csv or newline-delimited json")
+    public void export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat = OrderExportService.Format.from(format);
+        orderExportService.validateRange(from, to);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders-" + from + "-" + to + "." + exportFormat.getExtension() + "\"");
+
+        orderExportService.export(from, to, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "stream order status changes", description = "server-sent events for every status change " +
+            "the caller can see; customers only receive their own orders")
+    public SseEmitter stream() {
+        return orderEventStream.subscribe();
+    }
+
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "update order status", description = "updates the status of an order")
@@ -100,4 +227,8 @@ public class OrderController {
         OrderService.OrderStats stats = orderService.getOrderStats();
         return ResponseEntity.ok(stats);
     }
+
+    private static boolean isSummary(String view) {
+        return VIEW_SUMMARY.equalsIgnoreCase(view);
+    }
 }
@@ -2,6 +2,7 @@ package com.ordermanagement.controller;
 
 import com.ordermanagement.dto.payment.PaymentResponse;
 import com.ordermanagement.dto.payment.ProcessPaymentRequest;
+import com.ordermanagement.service.IdempotencyService;
 import com.ordermanagement.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,12 +20,19 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
-    @Operation(summary = "process payment", description = "processes a payment for an order")
-    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody ProcessPaymentRequest request) {
-        PaymentResponse response = paymentService.processPayment(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    @Operation(summary = "process payment", description = "processes a payment for an order. " +
+            "retries sent with the same Idempotency-Key header get the original response back")
+    public ResponseEntity<PaymentResponse> processPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody ProcessPaymentRequest request) {
+        IdempotencyService.Result<PaymentResponse> result = idempotencyService.execute(
+                "payments", idempotencyKey, request, PaymentResponse.class, () -> paymentService.processPayment(request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
     }
 
     @GetMapping("/order/{orderId}")
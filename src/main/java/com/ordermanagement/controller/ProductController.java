@@ -1,8 +1,11 @@
 package com.ordermanagement.controller;
 
+import com.ordermanagement.dto.common.CursorPageResponse;
 import com.ordermanagement.dto.common.PageResponse;
+import com.ordermanagement.dto.common.Versioned;
 import com.ordermanagement.dto.product.CreateProductRequest;
 import com.ordermanagement.dto.product.ProductResponse;
+import com.ordermanagement.dto.product.ProductSuggestionResponse;
 import com.ordermanagement.dto.product.UpdateProductRequest;
 import com.ordermanagement.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,11 +15,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -38,15 +43,13 @@ public class ProductController {
     @GetMapping("/{id}")
     @Operation(summary = "get product by id", description = "retrieves a specific product by its id")
     public ResponseEntity<ProductResponse> findById(@PathVariable Long id) {
-        ProductResponse response = productService.findById(id);
-        return ResponseEntity.ok(response);
+        return conditional(productService.findById(id));
     }
 
     @GetMapping("/sku/{sku}")
     @Operation(summary = "get product by sku", description = "retrieves a specific product by its sku code")
     public ResponseEntity<ProductResponse> findBySku(@PathVariable String sku) {
-        ProductResponse response = productService.findBySku(sku);
-        return ResponseEntity.ok(response);
+        return conditional(productService.findBySku(sku));
     }
 
     @GetMapping
@@ -55,7 +58,16 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size, Sort.by("name").ascending());
-        PageResponse<ProductResponse> response = productService.findAllActive(pageable);
+        return conditional(productService.findAllActive(pageable));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "list all products by cursor", description = "retrieves active products ordered by name. " +
+            "pass the returned nextCursor to get the following page; no total count is computed")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> findAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<ProductResponse> response = productService.findAllActive(cursor, size);
         return ResponseEntity.ok(response);
     }
 
@@ -64,16 +76,29 @@ public class ProductController {
     public ResponseEntity<PageResponse<ProductResponse>> findByCategory(
             @PathVariable Long categoryId,
             @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<ProductResponse> response = productService.findByCategory(categoryId, pageable);
-        return ResponseEntity.ok(response);
+        return conditional(productService.findByCategory(categoryId, pageable));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "search products", description = "searches products by name")
+    @Operation(summary = "search products", description = "full-text search over name, sku and description, " +
+            "ranked by relevance; falls back to similar names when nothing matches exactly")
     public ResponseEntity<PageResponse<ProductResponse>> search(
             @RequestParam String query,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<ProductResponse> response = productService.search(query, pageable);
+        PageResponse<ProductResponse> response = productService.search(query, categoryId, minPrice, maxPrice, pageable);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "suggest products", description = "best-selling products whose name or sku starts with " +
+            "the prefix, for search box autocomplete")
+    public ResponseEntity<List<ProductSuggestionResponse>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestionResponse> response = productService.suggest(prefix, limit);
         return ResponseEntity.ok(response);
     }
 
@@ -103,4 +128,18 @@ public class ProductController {
         productService.deactivate(id);
         return ResponseEntity.noContent().build();
     }
+
+    // with the validators on a 200, spring answers a matching If-None-Match / If-Modified-Since with
+    // an empty 304. no-cache lets browsers and cdns keep the body as long as they revalidate it
+    private static <T> ResponseEntity<T> conditional(Versioned<T> versioned) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePublic());
+        if (versioned.getEtag() != null) {
+            response.eTag(versioned.getEtag());
+        }
+        if (versioned.getLastModified() >= 0) {
+            response.lastModified(versioned.getLastModified());
+        }
+        return response.body(versioned.getBody());
+    }
 }
@@ -0,0 +1,52 @@
+package com.ordermanagement.controller;
+
+import com.ordermanagement.dto.shipping.ShippingRateRequest;
+import com.ordermanagement.dto.shipping.ShippingRateResponse;
+import com.ordermanagement.service.ShippingRateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shipping-rates")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@Tag(name = "Shipping Rates", description = "shipping rate table management endpoints")
+public class ShippingRateController {
+
+    private final ShippingRateService shippingRateService;
+
+    @PutMapping
+    @Operation(summary = "create or replace a rate", description = "sets the shipping rate for a zip code prefix")
+    public ResponseEntity<ShippingRateResponse> save(@Valid @RequestBody ShippingRateRequest request) {
+        ShippingRateResponse response = shippingRateService.save(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "list all rates", description = "retrieves all shipping rates including inactive ones")
+    public ResponseEntity<List<ShippingRateResponse>> findAll() {
+        List<ShippingRateResponse> response = shippingRateService.findAll();
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "deactivate a rate", description = "removes a rate from the active shipping table")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        shippingRateService.deactivate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "reload rate tables", description = "rebuilds the in-memory rate tables from the database")
+    public ResponseEntity<Void> reload() {
+        shippingRateService.reload();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -12,8 +12,10 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class BaseEntity {
 
+    // each entity declares its own "entity_id_seq" generator; pooled sequence ids keep
+    // hibernate jdbc batching enabled, which IDENTITY would silently turn off
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_id_seq")
     private Long id;
 
     @CreationTimestamp
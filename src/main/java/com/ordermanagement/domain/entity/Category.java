@@ -8,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "categories")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "categories_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
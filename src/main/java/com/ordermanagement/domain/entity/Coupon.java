@@ -0,0 +1,50 @@
+package com.ordermanagement.domain.entity;
+
+import com.ordermanagement.domain.enums.DiscountType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "coupons")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "coupons_id_seq", allocationSize = 50)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Coupon extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 30)
+    private String code;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "discount_type", nullable = false)
+    private DiscountType discountType;
+
+    @Column(name = "discount_value", nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountValue;
+
+    @Column(name = "min_subtotal", precision = 10, scale = 2)
+    private BigDecimal minSubtotal;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @Column(name = "usage_limit")
+    private Integer usageLimit;
+
+    @Column(name = "used_count", nullable = false)
+    @Builder.Default
+    private Integer usedCount = 0;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+}
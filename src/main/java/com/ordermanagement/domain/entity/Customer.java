@@ -8,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "customers")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "customers_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,8 +1,11 @@
 package com.ordermanagement.domain.entity;
 
 import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.domain.event.OrderStatusChangedEvent;
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "orders_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +29,9 @@ public class Order extends BaseEntity {
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
+    @Column(name = "customer_name", length = 100)
+    private String customerName;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -33,6 +40,10 @@ public class Order extends BaseEntity {
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
 
+    @Column(name = "item_count", nullable = false)
+    @Builder.Default
+    private Integer itemCount = 0;
+
     @Column(name = "subtotal", nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
 
@@ -40,6 +51,9 @@ public class Order extends BaseEntity {
     @Builder.Default
     private BigDecimal discount = BigDecimal.ZERO;
 
+    @Column(name = "coupon_code", length = 30)
+    private String couponCode;
+
     @Column(name = "shipping_cost", precision = 10, scale = 2)
     @Builder.Default
     private BigDecimal shippingCost = BigDecimal.ZERO;
@@ -77,6 +91,11 @@ public class Order extends BaseEntity {
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Payment payment;
 
+    // published by spring data when the order is saved through its repository
+    @Transient
+    @Builder.Default
+    private List<OrderStatusChangedEvent> statusChanges = new ArrayList<>();
+
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
@@ -90,6 +109,10 @@ public class Order extends BaseEntity {
     }
 
     public void recalculateTotal() {
+        this.itemCount = items.stream()
+                .mapToInt(OrderItem::getQuantity)
+                .sum();
+
         this.subtotal = items.stream()
                 .map(OrderItem::getTotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -99,19 +122,27 @@ public class Order extends BaseEntity {
                 .add(this.shippingCost != null ? this.shippingCost : BigDecimal.ZERO);
     }
 
+    public void place() {
+        statusChanges.add(new OrderStatusChangedEvent(getId(), orderNumber, customerId(), null, status));
+    }
+
     public void confirmPayment() {
         if (this.status != OrderStatus.PENDING_PAYMENT) {
             throw new IllegalStateException("order is not awaiting payment");
         }
-        this.status = OrderStatus.PAID;
+        changeStatus(OrderStatus.PAID);
         this.paidAt = LocalDateTime.now();
     }
 
+    public void startProcessing() {
+        changeStatus(OrderStatus.PROCESSING);
+    }
+
     public void ship() {
         if (this.status != OrderStatus.PAID && this.status != OrderStatus.PROCESSING) {
             throw new IllegalStateException("order cannot be shipped in current status");
         }
-        this.status = OrderStatus.SHIPPED;
+        changeStatus(OrderStatus.SHIPPED);
         this.shippedAt = LocalDateTime.now();
     }
 
@@ -119,7 +150,7 @@ public class Order extends BaseEntity {
         if (this.status != OrderStatus.SHIPPED) {
             throw new IllegalStateException("order hasn't been shipped yet");
         }
-        this.status = OrderStatus.DELIVERED;
+        changeStatus(OrderStatus.DELIVERED);
         this.deliveredAt = LocalDateTime.now();
     }
 
@@ -127,7 +158,30 @@ public class Order extends BaseEntity {
         if (this.status == OrderStatus.DELIVERED) {
             throw new IllegalStateException("order already delivered, cannot be cancelled");
         }
-        this.status = OrderStatus.CANCELLED;
+        changeStatus(OrderStatus.CANCELLED);
         this.cancelledAt = LocalDateTime.now();
     }
+
+    @DomainEvents
+    List<OrderStatusChangedEvent> statusChanges() {
+        // ids are assigned on save, so events recorded before the first save get theirs here
+        return statusChanges.stream()
+                .map(event -> event.getOrderId() != null ? event : new OrderStatusChangedEvent(getId(),
+                        event.getOrderNumber(), event.getCustomerId(), event.getPreviousStatus(), event.getStatus()))
+                .toList();
+    }
+
+    @AfterDomainEventPublication
+    void clearStatusChanges() {
+        statusChanges.clear();
+    }
+
+    private void changeStatus(OrderStatus next) {
+        statusChanges.add(new OrderStatusChangedEvent(getId(), orderNumber, customerId(), this.status, next));
+        this.status = next;
+    }
+
+    private Long customerId() {
+        return customer != null ? customer.getId() : null;
+    }
 }
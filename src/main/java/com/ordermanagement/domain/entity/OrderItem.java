@@ -7,6 +7,7 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "order_items")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
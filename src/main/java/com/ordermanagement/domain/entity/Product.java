@@ -2,11 +2,15 @@ package com.ordermanagement.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "products")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
+// stock is moved by guarded sql updates, so entity updates must not rewrite it with a stale value
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,6 +36,12 @@ public class Product extends BaseEntity {
     @Column(name = "image_url", length = 500)
     private String imageUrl;
 
+    @Column(name = "weight_grams")
+    private Integer weightGrams;
+
+    @Column(name = "volume_cm3")
+    private Integer volumeCm3;
+
     @Column(nullable = false)
     private boolean active = true;
 
@@ -0,0 +1,31 @@
+package com.ordermanagement.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "shipping_rates")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "shipping_rates_id_seq", allocationSize = 50)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShippingRate extends BaseEntity {
+
+    @Column(name = "zip_prefix", nullable = false, unique = true, length = 8)
+    private String zipPrefix;
+
+    @Column(name = "base_cost", nullable = false, precision = 10, scale = 2)
+    private BigDecimal baseCost;
+
+    @Column(name = "cost_per_kg", nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal costPerKg = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+}
@@ -12,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@SequenceGenerator(name = "entity_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,6 @@
+package com.ordermanagement.domain.enums;
+
+public enum DiscountType {
+    PERCENTAGE,
+    FIXED
+}
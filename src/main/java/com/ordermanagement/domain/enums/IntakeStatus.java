@@ -0,0 +1,8 @@
+package com.ordermanagement.domain.enums;
+
+public enum IntakeStatus {
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
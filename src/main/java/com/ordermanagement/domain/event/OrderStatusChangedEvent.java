@@ -0,0 +1,18 @@
+package com.ordermanagement.domain.event;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// raised by Order on creation (previousStatus null) and on every status transition. it is
+// published when the order is saved, so listeners bound to the commit only see durable changes
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long customerId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+}
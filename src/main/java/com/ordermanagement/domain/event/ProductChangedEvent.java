@@ -0,0 +1,13 @@
+package com.ordermanagement.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// published by ProductService whenever a product is created, edited or deactivated. in-memory
+// views of the catalog listen for it after commit and reload the product from the database
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productId;
+}
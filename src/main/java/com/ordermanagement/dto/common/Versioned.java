@@ -0,0 +1,15 @@
+package com.ordermanagement.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// a response body with the validators for conditional GETs. etag is null when none could be
+// computed, in which case the body is served unconditionally
+@Getter
+@AllArgsConstructor
+public class Versioned<T> {
+
+    private final T body;
+    private final String etag;
+    private final long lastModified;
+}
@@ -0,0 +1,46 @@
+package com.ordermanagement.dto.coupon;
+
+import com.ordermanagement.domain.entity.Coupon;
+import com.ordermanagement.domain.enums.DiscountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponResponse {
+
+    private Long id;
+    private String code;
+    private DiscountType discountType;
+    private BigDecimal discountValue;
+    private BigDecimal minSubtotal;
+    private Long categoryId;
+    private Integer usageLimit;
+    private Integer usedCount;
+    private LocalDateTime expiresAt;
+    private boolean active;
+    private LocalDateTime createdAt;
+
+    public static CouponResponse fromEntity(Coupon coupon) {
+        return CouponResponse.builder()
+                .id(coupon.getId())
+                .code(coupon.getCode())
+                .discountType(coupon.getDiscountType())
+                .discountValue(coupon.getDiscountValue())
+                .minSubtotal(coupon.getMinSubtotal())
+                .categoryId(coupon.getCategory() != null ? coupon.getCategory().getId() : null)
+                .usageLimit(coupon.getUsageLimit())
+                .usedCount(coupon.getUsedCount())
+                .expiresAt(coupon.getExpiresAt())
+                .active(coupon.isActive())
+                .createdAt(coupon.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ordermanagement.dto.coupon;
+
+import com.ordermanagement.domain.enums.DiscountType;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCouponRequest {
+
+    @NotBlank(message = "coupon code is required")
+    @Size(max = 30, message = "code cannot exceed 30 characters")
+    private String code;
+
+    @NotNull(message = "discount type is required")
+    private DiscountType discountType;
+
+    @NotNull(message = "discount value is required")
+    @DecimalMin(value = "0.01", message = "discount value must be greater than zero")
+    private BigDecimal discountValue;
+
+    @DecimalMin(value = "0.00", message = "minimum subtotal cannot be negative")
+    private BigDecimal minSubtotal;
+
+    private Long categoryId;
+
+    @Min(value = 1, message = "usage limit must be at least 1")
+    private Integer usageLimit;
+
+    @Future(message = "expiration must be in the future")
+    private LocalDateTime expiresAt;
+}
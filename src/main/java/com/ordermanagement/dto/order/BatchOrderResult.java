@@ -0,0 +1,34 @@
+package com.ordermanagement.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+
+    private int index;
+    private boolean success;
+    private OrderResponse order;
+    private String error;
+
+    public static BatchOrderResult success(int index, OrderResponse order) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .success(true)
+                .order(order)
+                .build();
+    }
+
+    public static BatchOrderResult failure(int index, String error) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
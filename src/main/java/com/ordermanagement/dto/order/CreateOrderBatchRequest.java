@@ -0,0 +1,23 @@
+package com.ordermanagement.dto.order;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateOrderBatchRequest {
+
+    @NotEmpty(message = "batch must have at least one order")
+    @Size(max = 500, message = "batch cannot exceed 500 orders")
+    @Valid
+    private List<CreateOrderRequest> orders;
+}
@@ -0,0 +1,24 @@
+package com.ordermanagement.dto.order;
+
+import com.ordermanagement.domain.enums.IntakeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeResponse {
+
+    private String ticketId;
+    private IntakeStatus status;
+    private String statusUrl;
+    private Long orderId;
+    private String orderNumber;
+    private String error;
+    private LocalDateTime submittedAt;
+}
@@ -1,6 +1,7 @@
 package com.ordermanagement.dto.order;
 
 import com.ordermanagement.domain.entity.OrderItem;
+import com.ordermanagement.repository.projection.OrderItemRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -33,4 +34,16 @@ public class OrderItemResponse {
                 .total(item.getTotal())
                 .build();
     }
+
+    public static OrderItemResponse fromRow(OrderItemRow row) {
+        return OrderItemResponse.builder()
+                .id(row.getId())
+                .productId(row.getProductId())
+                .productName(row.getProductName())
+                .productSku(row.getProductSku())
+                .quantity(row.getQuantity())
+                .unitPrice(row.getUnitPrice())
+                .total(row.getTotal())
+                .build();
+    }
 }
@@ -3,6 +3,7 @@ package com.ordermanagement.dto.order;
 import com.ordermanagement.domain.entity.Order;
 import com.ordermanagement.domain.enums.OrderStatus;
 import com.ordermanagement.dto.customer.AddressDto;
+import com.ordermanagement.repository.projection.OrderRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,6 +28,7 @@ public class OrderResponse {
     private List<OrderItemResponse> items;
     private BigDecimal subtotal;
     private BigDecimal discount;
+    private String couponCode;
     private BigDecimal shippingCost;
     private BigDecimal total;
     private AddressDto shippingAddress;
@@ -49,6 +51,7 @@ public class OrderResponse {
                         .collect(Collectors.toList()))
                 .subtotal(order.getSubtotal())
                 .discount(order.getDiscount())
+                .couponCode(order.getCouponCode())
                 .shippingCost(order.getShippingCost())
                 .total(order.getTotal())
                 .shippingAddress(AddressDto.fromEntity(order.getShippingAddress()))
@@ -60,4 +63,27 @@ public class OrderResponse {
                 .createdAt(order.getCreatedAt())
                 .build();
     }
+
+    public static OrderResponse fromRow(OrderRow row, List<OrderItemResponse> items) {
+        return OrderResponse.builder()
+                .id(row.getId())
+                .orderNumber(row.getOrderNumber())
+                .customerId(row.getCustomerId())
+                .customerName(row.getCustomerName())
+                .status(row.getStatus())
+                .items(items)
+                .subtotal(row.getSubtotal())
+                .discount(row.getDiscount())
+                .couponCode(row.getCouponCode())
+                .shippingCost(row.getShippingCost())
+                .total(row.getTotal())
+                .shippingAddress(AddressDto.fromEntity(row.getShippingAddress()))
+                .notes(row.getNotes())
+                .paidAt(row.getPaidAt())
+                .shippedAt(row.getShippedAt())
+                .deliveredAt(row.getDeliveredAt())
+                .cancelledAt(row.getCancelledAt())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
 }
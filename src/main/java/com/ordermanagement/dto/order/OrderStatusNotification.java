@@ -0,0 +1,36 @@
+package com.ordermanagement.dto.order;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.domain.event.OrderStatusChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// pushed to /api/orders/stream subscribers. previousStatus is null for a new order
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusNotification {
+
+    private Long orderId;
+    private String orderNumber;
+    private Long customerId;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private LocalDateTime occurredAt;
+
+    public static OrderStatusNotification fromEvent(OrderStatusChangedEvent event) {
+        return OrderStatusNotification.builder()
+                .orderId(event.getOrderId())
+                .orderNumber(event.getOrderNumber())
+                .customerId(event.getCustomerId())
+                .previousStatus(event.getPreviousStatus())
+                .status(event.getStatus())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ordermanagement.dto.order;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.repository.projection.OrderSummaryRow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// list view of an order, read from the summary columns of the orders table
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private Long id;
+    private String orderNumber;
+    private OrderStatus status;
+    private BigDecimal total;
+    private String customerName;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+
+    public static OrderSummaryResponse fromRow(OrderSummaryRow row) {
+        return OrderSummaryResponse.builder()
+                .id(row.getId())
+                .orderNumber(row.getOrderNumber())
+                .status(row.getStatus())
+                .total(row.getTotal())
+                .customerName(row.getCustomerName())
+                .itemCount(row.getItemCount())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
+
+    // archived orders keep no summary columns; the figures come from the archived document
+    public static OrderSummaryResponse fromOrder(OrderResponse order) {
+        return OrderSummaryResponse.builder()
+                .id(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .total(order.getTotal())
+                .customerName(order.getCustomerName())
+                .itemCount(order.getItems().stream().mapToInt(OrderItemResponse::getQuantity).sum())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+}
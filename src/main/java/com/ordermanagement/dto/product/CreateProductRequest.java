@@ -35,6 +35,12 @@ public class CreateProductRequest {
     @Size(max = 500, message = "image url cannot exceed 500 characters")
     private String imageUrl;
 
+    @Min(value = 0, message = "weight cannot be negative")
+    private Integer weightGrams;
+
+    @Min(value = 0, message = "volume cannot be negative")
+    private Integer volumeCm3;
+
     @NotNull(message = "category id is required")
     private Long categoryId;
 }
@@ -10,7 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponse {
@@ -22,6 +22,8 @@ public class ProductResponse {
     private Integer stockQuantity;
     private String sku;
     private String imageUrl;
+    private Integer weightGrams;
+    private Integer volumeCm3;
     private boolean active;
     private Long categoryId;
     private String categoryName;
@@ -37,6 +39,8 @@ public class ProductResponse {
                 .stockQuantity(product.getStockQuantity())
                 .sku(product.getSku())
                 .imageUrl(product.getImageUrl())
+                .weightGrams(product.getWeightGrams())
+                .volumeCm3(product.getVolumeCm3())
                 .active(product.isActive())
                 .categoryId(product.getCategory().getId())
                 .categoryName(product.getCategory().getName())
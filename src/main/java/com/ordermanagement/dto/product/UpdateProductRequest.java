@@ -31,6 +31,12 @@ public class UpdateProductRequest {
     @Size(max = 500, message = "image url cannot exceed 500 characters")
     private String imageUrl;
 
+    @Min(value = 0, message = "weight cannot be negative")
+    private Integer weightGrams;
+
+    @Min(value = 0, message = "volume cannot be negative")
+    private Integer volumeCm3;
+
     private Long categoryId;
 
     private Boolean active;
@@ -0,0 +1,29 @@
+package com.ordermanagement.dto.shipping;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingRateRequest {
+
+    @NotNull(message = "zip prefix is required")
+    @Pattern(regexp = "[0-9]{0,8}", message = "zip prefix must have up to 8 digits")
+    private String zipPrefix;
+
+    @NotNull(message = "base cost is required")
+    @DecimalMin(value = "0.00", message = "base cost cannot be negative")
+    private BigDecimal baseCost;
+
+    @DecimalMin(value = "0.00", message = "cost per kg cannot be negative")
+    private BigDecimal costPerKg;
+}
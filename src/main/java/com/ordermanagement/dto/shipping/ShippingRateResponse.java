@@ -0,0 +1,35 @@
+package com.ordermanagement.dto.shipping;
+
+import com.ordermanagement.domain.entity.ShippingRate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingRateResponse {
+
+    private Long id;
+    private String zipPrefix;
+    private BigDecimal baseCost;
+    private BigDecimal costPerKg;
+    private boolean active;
+    private LocalDateTime updatedAt;
+
+    public static ShippingRateResponse fromEntity(ShippingRate rate) {
+        return ShippingRateResponse.builder()
+                .id(rate.getId())
+                .zipPrefix(rate.getZipPrefix())
+                .baseCost(rate.getBaseCost())
+                .costPerKg(rate.getCostPerKg())
+                .active(rate.isActive())
+                .updatedAt(rate.getUpdatedAt() != null ? rate.getUpdatedAt() : rate.getCreatedAt())
+                .build();
+    }
+}
@@ -3,19 +3,30 @@ package com.ordermanagement.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @ResponseStatus(HttpStatus.CONFLICT)
 public class InsufficientStockException extends RuntimeException {
 
     private final Long productId;
     private final int requestedQuantity;
     private final int availableQuantity;
+    private final List<Shortage> shortages;
 
     public InsufficientStockException(Long productId, int requestedQuantity, int availableQuantity) {
-        super(String.format("insufficient stock for product %d: requested %d but only %d available",
-                productId, requestedQuantity, availableQuantity));
-        this.productId = productId;
-        this.requestedQuantity = requestedQuantity;
-        this.availableQuantity = availableQuantity;
+        this(List.of(new Shortage(productId, requestedQuantity, availableQuantity)));
+    }
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super(shortages.stream()
+                .map(shortage -> String.format("insufficient stock for product %d: requested %d but only %d available",
+                        shortage.getProductId(), shortage.getRequestedQuantity(), shortage.getAvailableQuantity()))
+                .collect(Collectors.joining("; ")));
+        this.productId = shortages.get(0).getProductId();
+        this.requestedQuantity = shortages.get(0).getRequestedQuantity();
+        this.availableQuantity = shortages.get(0).getAvailableQuantity();
+        this.shortages = List.copyOf(shortages);
     }
 
     public Long getProductId() {
@@ -29,4 +40,33 @@ public class InsufficientStockException extends RuntimeException {
     public int getAvailableQuantity() {
         return availableQuantity;
     }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    public static class Shortage {
+
+        private final Long productId;
+        private final int requestedQuantity;
+        private final int availableQuantity;
+
+        public Shortage(Long productId, int requestedQuantity, int availableQuantity) {
+            this.productId = productId;
+            this.requestedQuantity = requestedQuantity;
+            this.availableQuantity = availableQuantity;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public int getRequestedQuantity() {
+            return requestedQuantity;
+        }
+
+        public int getAvailableQuantity() {
+            return availableQuantity;
+        }
+    }
 }
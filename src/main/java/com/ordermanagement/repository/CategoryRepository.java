@@ -1,7 +1,9 @@
 package com.ordermanagement.repository;
 
 import com.ordermanagement.domain.entity.Category;
+import com.ordermanagement.repository.projection.CategoryListVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +14,8 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByActiveTrue();
 
     boolean existsByName(String name);
+
+    // bumped by triggers on categories and products (V16)
+    @Query(value = "select version, modified_at as \"modifiedAt\" from category_list_version", nativeQuery = true)
+    CategoryListVersion findListVersion();
 }
@@ -0,0 +1,27 @@
+package com.ordermanagement.repository;
+
+import com.ordermanagement.domain.entity.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CouponRepository extends JpaRepository<Coupon, Long> {
+
+    boolean existsByCode(String code);
+
+    @Query("select c from Coupon c left join fetch c.category where c.active = true")
+    List<Coupon> findActiveWithCategory();
+
+    @Modifying
+    @Query("update Coupon c set c.usedCount = c.usedCount + :uses where c.id = :id")
+    int incrementUsedCount(Long id, int uses);
+
+    // takes one use of a limited coupon if any are left; 0 when the limit is reached
+    @Modifying
+    @Query("update Coupon c set c.usedCount = c.usedCount + 1 where c.id = :id and c.usedCount < c.usageLimit")
+    int takeLimitedUse(Long id);
+}
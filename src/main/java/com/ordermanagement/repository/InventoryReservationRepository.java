@@ -0,0 +1,52 @@
+package com.ordermanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class InventoryReservationRepository {
+
+    // one statement: every committed journal row is deleted and its net delta applied to the
+    // product, so a crash can never leave a row applied twice or lost
+    private static final String APPLY_PENDING_SQL =
+            "with moved as (" +
+            "    delete from inventory_reservations returning product_id, quantity" +
+            "), totals as (" +
+            "    select product_id, sum(quantity) as quantity from moved group by product_id" +
+            ") " +
+            "update products p set stock_quantity = p.stock_quantity - t.quantity, updated_at = current_timestamp " +
+            "from totals t where p.id = t.product_id and t.quantity <> 0";
+
+    private static final String AVAILABLE_SQL =
+            "select p.stock_quantity - coalesce((select sum(r.quantity) from inventory_reservations r " +
+            "where r.product_id = p.id), 0) from products p where p.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(Map<Long, Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[]{productId, quantity}));
+        jdbcTemplate.batchUpdate("insert into inventory_reservations (product_id, quantity) values (?, ?)", args);
+    }
+
+    public int applyPending() {
+        return jdbcTemplate.update(APPLY_PENDING_SQL);
+    }
+
+    public Integer findStock(Long productId) {
+        List<Integer> result = jdbcTemplate.queryForList("select stock_quantity from products where id = ?",
+                Integer.class, productId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    public Integer findAvailable(Long productId) {
+        List<Integer> result = jdbcTemplate.queryForList(AVAILABLE_SQL, Integer.class, productId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+}
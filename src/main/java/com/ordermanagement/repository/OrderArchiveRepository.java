@@ -0,0 +1,126 @@
+package com.ordermanagement.repository;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private static final String INSERT_SQL =
+            "insert into orders_archive (id, order_number, customer_id, owner_user_id, status, created_at, document, payment) " +
+            "values (?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb) on conflict (id) do nothing";
+
+    private static final String TERMINAL_STATUSES = "('DELIVERED', 'CANCELLED')";
+
+    private static final RowMapper<ArchivedOrder> ARCHIVED_ORDER = (rs, rowNum) ->
+            new ArchivedOrder(rs.getLong("owner_user_id"), rs.getString("document"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // oldest first; skip locked rows so two instances never archive the same order
+    public List<Long> findArchivableIds(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.queryForList(
+                "select id from orders where status in " + TERMINAL_STATUSES + " and created_at < ? " +
+                "order by created_at, id limit ? for update skip locked",
+                Long.class, Timestamp.valueOf(createdBefore), limit);
+    }
+
+    public long countArchivable(LocalDateTime createdBefore) {
+        Long count = jdbcTemplate.queryForObject(
+                "select count(*) from orders where status in " + TERMINAL_STATUSES + " and created_at < ?",
+                Long.class, Timestamp.valueOf(createdBefore));
+        return count != null ? count : 0;
+    }
+
+    public void insertAll(List<Entry> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            args.add(new Object[]{entry.getId(), entry.getOrderNumber(), entry.getCustomerId(), entry.getOwnerUserId(),
+                    entry.getStatus().name(), Timestamp.valueOf(entry.getCreatedAt()), entry.getDocument(), entry.getPayment()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    // the ids come from findArchivableIds in the same transaction, whose row locks keep their status
+    // terminal until commit, so no guard is needed here
+    public int deleteLive(List<Long> ids) {
+        deleteByIds("delete from payments where order_id = any(?)", ids);
+        deleteByIds("delete from order_items where order_id = any(?)", ids);
+        return deleteByIds("delete from orders where id = any(?)", ids);
+    }
+
+    public Optional<ArchivedOrder> findById(Long id) {
+        return jdbcTemplate.query("select owner_user_id, document from orders_archive where id = ?", ARCHIVED_ORDER, id)
+                .stream().findFirst();
+    }
+
+    public Optional<ArchivedOrder> findByOrderNumber(String orderNumber) {
+        return jdbcTemplate.query("select owner_user_id, document from orders_archive where order_number = ?",
+                ARCHIVED_ORDER, orderNumber).stream().findFirst();
+    }
+
+    public List<String> findDocumentsByIdIn(List<Long> ids) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("select document from orders_archive where id = any(?)");
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    public Optional<String> findPaymentByOrderId(Long orderId) {
+        return jdbcTemplate.queryForList("select payment from orders_archive where id = ? and payment is not null",
+                String.class, orderId).stream().findFirst();
+    }
+
+    public Map<OrderStatus, Long> countByStatus() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        jdbcTemplate.query("select status, count(*) from orders_archive group by status",
+                rs -> {
+                    counts.put(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    private int deleteByIds(String sql, List<Long> ids) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Long id;
+        private final String orderNumber;
+        private final Long customerId;
+        private final Long ownerUserId;
+        private final OrderStatus status;
+        private final LocalDateTime createdAt;
+        private final String document;
+        private final String payment;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ArchivedOrder {
+        private final Long ownerUserId;
+        private final String document;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ordermanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderExportRepository {
+
+    public static final String[] COLUMNS = {
+            "order_number", "status", "customer_name", "item_count", "subtotal", "discount", "coupon_code",
+            "shipping_cost", "total", "shipping_city", "shipping_state", "shipping_zip_code",
+            "created_at", "paid_at", "shipped_at", "delivered_at", "cancelled_at"
+    };
+
+    // the same columns for an archived order, read from its document (V11); item_count is the sum of
+    // the item quantities, as in V8
+    private static final String[] ARCHIVED_COLUMNS = {
+            "order_number", "status", "document->>'customerName'",
+            "(select coalesce(sum((i->>'quantity')::int), 0)::int from jsonb_array_elements(document->'items') i)",
+            "(document->>'subtotal')::numeric", "(document->>'discount')::numeric", "document->>'couponCode'",
+            "(document->>'shippingCost')::numeric", "(document->>'total')::numeric",
+            "document->'shippingAddress'->>'city'", "document->'shippingAddress'->>'state'",
+            "document->'shippingAddress'->>'zipCode'", "created_at", "(document->>'paidAt')::timestamp",
+            "(document->>'shippedAt')::timestamp", "(document->>'deliveredAt')::timestamp",
+            "(document->>'cancelledAt')::timestamp"
+    };
+
+    // archived orders are still orders of the range, so both tables are read: orders only in the
+    // partitions the range covers (V9), orders_archive through its created_at index (V13)
+    private static final String EXPORT_SQL =
+            "select " + String.join(", ", COLUMNS) + " from (" +
+            "select id, " + String.join(", ", COLUMNS) + " from orders where created_at >= ? and created_at < ? " +
+            "union all " +
+            "select id, " + String.join(", ", ARCHIVED_COLUMNS) + " from orders_archive " +
+            "where created_at >= ? and created_at < ?) o order by created_at, id";
+
+    // rows per round trip; postgres only streams with a fetch size inside a transaction
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // hands rows to the handler one at a time from a forward-only cursor, so memory use doesn't
+    // depend on the size of the range. must run inside a transaction
+    public void streamCreatedBetween(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            statement.setTimestamp(3, Timestamp.valueOf(from));
+            statement.setTimestamp(4, Timestamp.valueOf(to));
+            return statement;
+        }, handler);
+    }
+}
@@ -1,10 +1,13 @@
 package com.ordermanagement.repository;
 
 import com.ordermanagement.domain.entity.OrderItem;
+import com.ordermanagement.repository.projection.OrderItemRow;
+import com.ordermanagement.repository.projection.ProductSales;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +17,13 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByProductId(Long productId);
 
+    @Query("select new com.ordermanagement.repository.projection.OrderItemRow(i.order.id, i.id, p.id, p.name, p.sku, " +
+            "i.quantity, i.unitPrice, i.total) from OrderItem i join i.product p where i.order.id in :orderIds order by i.id")
+    List<OrderItemRow> findRowsByOrderIdIn(Collection<Long> orderIds);
+
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi group by oi.product.id")
+    List<ProductSales> sumQuantityByProduct();
+
     @Query("select coalesce(sum(oi.quantity), 0) from OrderItem oi where oi.product.id = :productId")
     int getTotalQuantitySoldByProduct(Long productId);
 }
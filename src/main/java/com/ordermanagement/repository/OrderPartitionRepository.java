@@ -0,0 +1,36 @@
+package com.ordermanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderPartitionRepository {
+
+    private static final String PARTITIONS_SQL =
+            "select c.relname from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent " +
+            "where p.relname = ? and p.relnamespace = to_regnamespace(current_schema())::oid order by c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ensure_monthly_partition is defined in V13__order_partition_integrity.sql. returns how many rows
+    // were moved out of the default partition into the new one
+    public long ensureMonthlyPartition(String table, LocalDate monthStart) {
+        Long moved = jdbcTemplate.queryForObject("select ensure_monthly_partition(?, ?)", Long.class, table, monthStart);
+        return moved != null ? moved : 0;
+    }
+
+    public List<String> findPartitions(String table) {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, table);
+    }
+
+    // names come from the catalog and are checked by the caller; identifiers can't be bound
+    public void detachPartition(String table, String partition) {
+        jdbcTemplate.execute("alter table " + table + " detach partition " + partition);
+    }
+}
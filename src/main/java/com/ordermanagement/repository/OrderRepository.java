@@ -2,6 +2,10 @@ package com.ordermanagement.repository;
 
 import com.ordermanagement.domain.entity.Order;
 import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.repository.projection.OrderHistoryEntry;
+import com.ordermanagement.repository.projection.OrderRow;
+import com.ordermanagement.repository.projection.OrderStatusCount;
+import com.ordermanagement.repository.projection.OrderSummaryRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,31 +13,102 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    String ORDER_ROW_COLUMNS = "o.id, o.orderNumber, c.id, u.name, o.status, o.subtotal, o.discount, o.couponCode, " +
+            "o.shippingCost, o.total, o.shippingAddress.street, o.shippingAddress.number, o.shippingAddress.complement, " +
+            "o.shippingAddress.neighborhood, o.shippingAddress.city, o.shippingAddress.state, o.shippingAddress.zipCode, " +
+            "o.notes, o.paidAt, o.shippedAt, o.deliveredAt, o.cancelledAt, o.createdAt";
+
+    String ORDER_SUMMARY_COLUMNS = "o.id, o.orderNumber, o.status, o.total, o.customerName, o.itemCount, o.createdAt";
+
     Optional<Order> findByOrderNumber(String orderNumber);
 
     Page<Order> findByCustomerId(Long customerId, Pageable pageable);
 
+    // a customer's history spans live and archived orders (V11), so it is paged over both, newest first.
+    // callers pass the page as limit and offset; the order of the page is fixed
+    @Query(value = "select h.id, h.archived from (" +
+            "select o.id, false as archived, o.created_at from orders o where o.customer_id = :customerId " +
+            "union all " +
+            "select a.id, true, a.created_at from orders_archive a where a.customer_id = :customerId) h " +
+            "order by h.created_at desc, h.id desc limit :limit offset :offset", nativeQuery = true)
+    List<OrderHistoryEntry> findHistoryByCustomerId(Long customerId, int limit, long offset);
+
+    @Query(value = "select (select count(*) from orders where customer_id = :customerId) + " +
+            "(select count(*) from orders_archive where customer_id = :customerId)", nativeQuery = true)
+    long countHistoryByCustomerId(Long customerId);
+
+    // everything OrderResponse touches, in one query. payment is fetched too because hibernate
+    // can't lazy load the inverse side of a one-to-one and would otherwise select it per order
+    @Query("select distinct o from Order o left join fetch o.items i left join fetch i.product " +
+            "join fetch o.customer c join fetch c.user left join fetch o.payment where o.id in :ids")
+    List<Order> findAllWithDetailsByIdIn(Collection<Long> ids);
+
     List<Order> findByStatus(OrderStatus status);
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    @Query(value = "select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u",
+            countQuery = "select count(o) from Order o")
+    Page<OrderRow> findAllRows(Pageable pageable);
+
+    @Query(value = "select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u where o.status = :status",
+            countQuery = "select count(o) from Order o where o.status = :status")
+    Page<OrderRow> findRowsByStatus(OrderStatus status, Pageable pageable);
+
+    // keyset listings, newest first. callers pass PageRequest.of(0, n) as the limit; no count query runs
+    @Query("select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u order by o.createdAt desc, o.id desc")
+    List<OrderRow> findFirstRows(Pageable limit);
+
+    @Query("select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u where (o.createdAt, o.id) < (:createdAt, :id) " +
+            "order by o.createdAt desc, o.id desc")
+    List<OrderRow> findRowsBefore(LocalDateTime createdAt, Long id, Pageable limit);
+
+    @Query("select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u where o.status = :status order by o.createdAt desc, o.id desc")
+    List<OrderRow> findFirstRowsByStatus(OrderStatus status, Pageable limit);
+
+    @Query("select new com.ordermanagement.repository.projection.OrderRow(" + ORDER_ROW_COLUMNS + ") " +
+            "from Order o join o.customer c join c.user u where o.status = :status and (o.createdAt, o.id) < (:createdAt, :id) " +
+            "order by o.createdAt desc, o.id desc")
+    List<OrderRow> findRowsByStatusBefore(OrderStatus status, LocalDateTime createdAt, Long id, Pageable limit);
+
+    // list views: single-table reads of the denormalized summary columns
+    @Query("select new com.ordermanagement.repository.projection.OrderSummaryRow(" + ORDER_SUMMARY_COLUMNS + ") " +
+            "from Order o where o.id in :ids")
+    List<OrderSummaryRow> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(value = "select new com.ordermanagement.repository.projection.OrderSummaryRow(" + ORDER_SUMMARY_COLUMNS + ") from Order o",
+            countQuery = "select count(o) from Order o")
+    Page<OrderSummaryRow> findAllSummaries(Pageable pageable);
+
+    @Query(value = "select new com.ordermanagement.repository.projection.OrderSummaryRow(" + ORDER_SUMMARY_COLUMNS + ") " +
+            "from Order o where o.status = :status",
+            countQuery = "select count(o) from Order o where o.status = :status")
+    Page<OrderSummaryRow> findSummariesByStatus(OrderStatus status, Pageable pageable);
+
     @Query("select o from Order o left join fetch o.items where o.id = :id")
     Optional<Order> findByIdWithItems(Long id);
 
-    @Query("select o from Order o left join fetch o.items left join fetch o.customer where o.orderNumber = :orderNumber")
+    @Query("select o from Order o left join fetch o.items i left join fetch i.product join fetch o.customer c " +
+            "join fetch c.user left join fetch o.payment where o.orderNumber = :orderNumber")
     Optional<Order> findByOrderNumberWithDetails(String orderNumber);
 
-    @Query("select o from Order o where o.createdAt between :startDate and :endDate")
-    List<Order> findOrdersBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
-
     long countByStatus(OrderStatus status);
 
+    @Query("select o.status as status, count(o) as total from Order o group by o.status")
+    List<OrderStatusCount> countGroupedByStatus();
+
     @Query("select o from Order o where o.customer.id = :customerId order by o.createdAt desc")
     List<Order> findRecentOrdersByCustomer(Long customerId, Pageable pageable);
 }
@@ -1,26 +1,74 @@
 package com.ordermanagement.repository;
 
 import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.repository.projection.ProductLabel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    String SEARCH_FILTERS = "and (cast(:categoryId as bigint) is null or p.category_id = :categoryId) " +
+            "and (cast(:minPrice as numeric) is null or p.price >= :minPrice) " +
+            "and (cast(:maxPrice as numeric) is null or p.price <= :maxPrice) ";
+
     Page<Product> findByActiveTrue(Pageable pageable);
 
     Page<Product> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
 
     Optional<Product> findBySku(String sku);
 
-    @Query("select p from Product p where p.active = true and lower(p.name) like lower(concat('%', :searchTerm, '%'))")
-    Page<Product> searchByName(String searchTerm, Pageable pageable);
+    // keyset listings by name; callers pass PageRequest.of(0, n) as the limit and no count query runs
+    @Query("select p from Product p join fetch p.category where p.active = true order by p.name, p.id")
+    List<Product> findFirstActive(Pageable limit);
+
+    @Query("select p from Product p join fetch p.category where p.active = true and (p.name, p.id) > (:name, :id) " +
+            "order by p.name, p.id")
+    List<Product> findActiveAfter(String name, Long id, Pageable limit);
+
+    // full-text search over name, sku and description (V14), best match first. null filters are ignored
+    @Query(value = "select p.id from products p where p.active = true " +
+            "and p.search_vector @@ websearch_to_tsquery('simple', :query) " +
+            SEARCH_FILTERS +
+            "order by ts_rank_cd(p.search_vector, websearch_to_tsquery('simple', :query)) desc, p.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Long> searchIds(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, int limit, long offset);
+
+    @Query(value = "select count(*) from products p where p.active = true " +
+            "and p.search_vector @@ websearch_to_tsquery('simple', :query) " +
+            SEARCH_FILTERS, nativeQuery = true)
+    long countSearch(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice);
+
+    // trigram fallback on the name for queries the full-text search misses, closest name first
+    @Query(value = "select p.id from products p where p.active = true and lower(:query) <% lower(p.name) " +
+            SEARCH_FILTERS +
+            "order by word_similarity(lower(:query), lower(p.name)) desc, p.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Long> searchSimilarIds(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, int limit, long offset);
+
+    @Query(value = "select count(*) from products p where p.active = true and lower(:query) <% lower(p.name) " +
+            SEARCH_FILTERS, nativeQuery = true)
+    long countSimilar(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice);
+
+    @Query("select p from Product p join fetch p.category where p.id = :id")
+    Optional<Product> findWithCategoryById(Long id);
+
+    @Query("select p.id as id, p.name as name, p.sku as sku from Product p where p.active = true")
+    List<ProductLabel> findActiveLabels();
+
+    @Query("select p from Product p join fetch p.category where p.active = true")
+    List<Product> findAllActiveWithCategory();
+
+    @Query("select p from Product p join fetch p.category where p.active = true and p.id in :ids")
+    List<Product> findAllActiveWithCategoryByIdIn(Collection<Long> ids);
 
     @Query("select p from Product p where p.active = true and p.stockQuantity <= :threshold")
     List<Product> findLowStockProducts(int threshold);
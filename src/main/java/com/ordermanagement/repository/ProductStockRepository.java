@@ -0,0 +1,74 @@
+package com.ordermanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// single-statement stock updates - the guard on stock_quantity makes check and write atomic
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREASE_SQL =
+            "update products set stock_quantity = stock_quantity - ?, updated_at = current_timestamp " +
+            "where id = ? and stock_quantity >= ?";
+
+    private static final String INCREASE_SQL =
+            "update products set stock_quantity = stock_quantity + ?, updated_at = current_timestamp " +
+            "where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // one jdbc batch in map iteration order - pass a sorted map so concurrent carts lock rows
+    // in the same order. returns the ids whose guarded update matched no row
+    public Set<Long> decreaseAll(Map<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int quantity = quantities.get(id);
+            args.add(new Object[]{quantity, id, quantity});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREASE_SQL, args);
+
+        Set<Long> rejected = new LinkedHashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    public void increaseAll(Map<Long, Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[]{quantity, id}));
+        jdbcTemplate.batchUpdate(INCREASE_SQL, args);
+    }
+
+    public Map<Long, Integer> findStockQuantities(Collection<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stock;
+        }
+
+        namedParameterJdbcTemplate.query(
+                "select id, stock_quantity from products where id in (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    stock.put(rs.getLong("id"), rs.getInt("stock_quantity"));
+                });
+        return stock;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ordermanagement.repository;
+
+import com.ordermanagement.domain.entity.ShippingRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ShippingRateRepository extends JpaRepository<ShippingRate, Long> {
+
+    List<ShippingRate> findByActiveTrue();
+
+    Optional<ShippingRate> findByZipPrefix(String zipPrefix);
+
+    @Query("select max(coalesce(r.updatedAt, r.createdAt)) from ShippingRate r")
+    LocalDateTime findLastModified();
+}
@@ -0,0 +1,10 @@
+package com.ordermanagement.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CategoryListVersion {
+
+    long getVersion();
+
+    LocalDateTime getModifiedAt();
+}
@@ -0,0 +1,9 @@
+package com.ordermanagement.repository.projection;
+
+// one order of a customer's history; archived ones live in orders_archive instead of orders
+public interface OrderHistoryEntry {
+
+    Long getId();
+
+    boolean isArchived();
+}
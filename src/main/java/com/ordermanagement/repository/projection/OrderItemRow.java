@@ -0,0 +1,21 @@
+package com.ordermanagement.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// flat, unmanaged read model of an order item and its product for listing queries
+@Getter
+@AllArgsConstructor
+public class OrderItemRow {
+
+    private final Long orderId;
+    private final Long id;
+    private final Long productId;
+    private final String productName;
+    private final String productSku;
+    private final Integer quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal total;
+}
@@ -0,0 +1,59 @@
+package com.ordermanagement.repository.projection;
+
+import com.ordermanagement.domain.entity.Address;
+import com.ordermanagement.domain.enums.OrderStatus;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// flat, unmanaged read model of an order and its customer for listing queries
+@Getter
+public class OrderRow {
+
+    private final Long id;
+    private final String orderNumber;
+    private final Long customerId;
+    private final String customerName;
+    private final OrderStatus status;
+    private final BigDecimal subtotal;
+    private final BigDecimal discount;
+    private final String couponCode;
+    private final BigDecimal shippingCost;
+    private final BigDecimal total;
+    private final Address shippingAddress;
+    private final String notes;
+    private final LocalDateTime paidAt;
+    private final LocalDateTime shippedAt;
+    private final LocalDateTime deliveredAt;
+    private final LocalDateTime cancelledAt;
+    private final LocalDateTime createdAt;
+
+    public OrderRow(Long id, String orderNumber, Long customerId, String customerName, OrderStatus status,
+                    BigDecimal subtotal, BigDecimal discount, String couponCode, BigDecimal shippingCost, BigDecimal total,
+                    String street, String number, String complement, String neighborhood, String city, String state, String zipCode,
+                    String notes, LocalDateTime paidAt, LocalDateTime shippedAt, LocalDateTime deliveredAt,
+                    LocalDateTime cancelledAt, LocalDateTime createdAt) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.status = status;
+        this.subtotal = subtotal;
+        this.discount = discount;
+        this.couponCode = couponCode;
+        this.shippingCost = shippingCost;
+        this.total = total;
+        // same as hibernate does for the embedded column: all columns null means no address
+        this.shippingAddress = street == null && number == null && complement == null && neighborhood == null
+                && city == null && state == null && zipCode == null
+                ? null
+                : new Address(street, number, complement, neighborhood, city, state, zipCode);
+        this.notes = notes;
+        this.paidAt = paidAt;
+        this.shippedAt = shippedAt;
+        this.deliveredAt = deliveredAt;
+        this.cancelledAt = cancelledAt;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ordermanagement.repository.projection;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+
+public interface OrderStatusCount {
+
+    OrderStatus getStatus();
+
+    long getTotal();
+}
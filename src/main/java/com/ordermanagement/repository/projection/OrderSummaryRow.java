@@ -0,0 +1,22 @@
+package com.ordermanagement.repository.projection;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// the denormalized summary columns of the orders table, read without joining anything
+@Getter
+@AllArgsConstructor
+public class OrderSummaryRow {
+
+    private final Long id;
+    private final String orderNumber;
+    private final OrderStatus status;
+    private final BigDecimal total;
+    private final String customerName;
+    private final Integer itemCount;
+    private final LocalDateTime createdAt;
+}
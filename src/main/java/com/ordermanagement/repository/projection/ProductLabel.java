@@ -0,0 +1,10 @@
+package com.ordermanagement.repository.projection;
+
+public interface ProductLabel {
+
+    Long getId();
+
+    String getName();
+
+    String getSku();
+}
@@ -0,0 +1,8 @@
+package com.ordermanagement.repository.projection;
+
+public interface ProductSales {
+
+    Long getProductId();
+
+    long getQuantity();
+}
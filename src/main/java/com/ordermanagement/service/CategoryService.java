@@ -6,10 +6,13 @@ import com.ordermanagement.dto.category.CreateCategoryRequest;
 import com.ordermanagement.exception.DuplicateResourceException;
 import com.ordermanagement.exception.ResourceNotFoundException;
 import com.ordermanagement.repository.CategoryRepository;
+import com.ordermanagement.repository.projection.CategoryListVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -51,6 +54,17 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    // validators for the active category list, read without loading it. the list also shows
+    // product counts, so adding or moving a product changes it as well as editing a category;
+    // triggers bump the version on either (V16)
+    @Transactional(readOnly = true)
+    public ListVersion getActiveListVersion() {
+        CategoryListVersion version = categoryRepository.findListVersion();
+
+        long modified = toMillis(version.getModifiedAt());
+        return new ListVersion("\"" + version.getVersion() + "-" + modified + "\"", modified);
+    }
+
     @Transactional(readOnly = true)
     public List<CategoryResponse> findAll() {
         return categoryRepository.findAll().stream()
@@ -85,4 +99,11 @@ public class CategoryService {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", id));
     }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    public record ListVersion(String etag, long lastModified) {
+    }
 }
@@ -0,0 +1,193 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.Coupon;
+import com.ordermanagement.domain.entity.OrderItem;
+import com.ordermanagement.domain.enums.DiscountType;
+import com.ordermanagement.exception.BusinessException;
+import com.ordermanagement.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// active coupons compiled into an immutable code -> rule map that checkout validates against
+// without touching the database. a usage limit is shared by every instance, so a limited coupon
+// takes its use with a conditional update of coupons.used_count in the checkout transaction; uses
+// of unlimited coupons are only counted, and written back in periodic batches. the map is rebuilt
+// whenever a coupon changes and on a timer to pick up changes made on other instances
+@Slf4j
+@Component
+public class CouponRegistry {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final CouponRepository couponRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // uses of unlimited coupons committed locally but not yet added to coupons.used_count
+    private final ConcurrentHashMap<Long, AtomicInteger> unflushedUses = new ConcurrentHashMap<>();
+    private volatile Map<String, CompiledCoupon> coupons = Map.of();
+
+    public CouponRegistry(CouponRepository couponRepository, PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // loaded before the context finishes starting, so checkout never sees an empty registry
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${coupons.refresh-interval-ms:60000}", initialDelayString = "${coupons.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        List<Coupon> active = transactionTemplate.execute(status -> couponRepository.findActiveWithCategory());
+
+        Map<String, CompiledCoupon> compiled = new HashMap<>();
+        for (Coupon coupon : active) {
+            compiled.put(normalize(coupon.getCode()), CompiledCoupon.compile(coupon));
+        }
+        coupons = Map.copyOf(compiled);
+    }
+
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    // a failing coupon keeps its uses for the next run and doesn't hold up the others
+    @Scheduled(fixedDelayString = "${coupons.flush-interval-ms:5000}")
+    public synchronized void flushUses() {
+        unflushedUses.forEach((couponId, counter) -> {
+            int uses = counter.getAndSet(0);
+            if (uses == 0) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> couponRepository.incrementUsedCount(couponId, uses));
+            } catch (RuntimeException e) {
+                counter.addAndGet(uses);
+                log.warn("could not record {} uses of coupon {}, retrying on the next flush", uses, couponId, e);
+            }
+        });
+    }
+
+    // validates the coupon against the order and takes one use, which is given back if the
+    // surrounding transaction rolls back
+    public BigDecimal redeem(String code, BigDecimal subtotal, List<OrderItem> items) {
+        CompiledCoupon coupon = coupons.get(normalize(code));
+        if (coupon == null) {
+            throw new BusinessException("invalid coupon code: " + code);
+        }
+
+        BigDecimal discount = coupon.discountFor(subtotal, items, System.currentTimeMillis());
+
+        if (coupon.limited) {
+            // joins the checkout transaction, so the row stays locked until the order commits or
+            // rolls back, and a rollback takes the use back with it
+            Integer taken = transactionTemplate.execute(status -> couponRepository.takeLimitedUse(coupon.id));
+            if (taken == null || taken == 0) {
+                throw new BusinessException("coupon " + coupon.code + " has reached its usage limit");
+            }
+            return discount;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordUse(coupon.id);
+            return discount;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordUse(coupon.id);
+            }
+        });
+        return discount;
+    }
+
+    private void recordUse(Long couponId) {
+        unflushedUses.computeIfAbsent(couponId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    // coupon codes are case-insensitive; this is the form they are looked up and stored in
+    static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class CompiledCoupon {
+
+        private final Long id;
+        private final String code;
+        private final DiscountType type;
+        private final BigDecimal value;
+        private final BigDecimal minSubtotal;
+        private final Long categoryId;
+        private final long expiresAtMillis;
+        private final boolean limited;
+
+        private CompiledCoupon(Coupon coupon) {
+            this.id = coupon.getId();
+            this.code = coupon.getCode();
+            this.type = coupon.getDiscountType();
+            this.value = coupon.getDiscountValue();
+            this.minSubtotal = coupon.getMinSubtotal();
+            this.categoryId = coupon.getCategory() != null ? coupon.getCategory().getId() : null;
+            this.expiresAtMillis = toMillis(coupon.getExpiresAt());
+            this.limited = coupon.getUsageLimit() != null;
+        }
+
+        static CompiledCoupon compile(Coupon coupon) {
+            return new CompiledCoupon(coupon);
+        }
+
+        BigDecimal discountFor(BigDecimal subtotal, List<OrderItem> items, long nowMillis) {
+            if (nowMillis >= expiresAtMillis) {
+                throw new BusinessException("coupon " + code + " has expired");
+            }
+            if (minSubtotal != null && subtotal.compareTo(minSubtotal) < 0) {
+                throw new BusinessException("coupon " + code + " requires a minimum subtotal of " + minSubtotal);
+            }
+
+            BigDecimal base = subtotal;
+            if (categoryId != null) {
+                base = BigDecimal.ZERO;
+                for (OrderItem item : items) {
+                    if (categoryId.equals(item.getProduct().getCategory().getId())) {
+                        base = base.add(item.getTotal());
+                    }
+                }
+                if (base.signum() == 0) {
+                    throw new BusinessException("coupon " + code + " does not apply to any item in this order");
+                }
+            }
+
+            return switch (type) {
+                case PERCENTAGE -> base.multiply(value).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+                case FIXED -> value.min(base);
+            };
+        }
+
+        private static long toMillis(LocalDateTime dateTime) {
+            return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.Coupon;
+import com.ordermanagement.dto.coupon.CouponResponse;
+import com.ordermanagement.dto.coupon.CreateCouponRequest;
+import com.ordermanagement.exception.DuplicateResourceException;
+import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CouponService {
+
+    private final CouponRepository couponRepository;
+    private final CategoryService categoryService;
+    private final CouponRegistry couponRegistry;
+
+    @Transactional
+    public CouponResponse create(CreateCouponRequest request) {
+        String code = CouponRegistry.normalize(request.getCode());
+        if (couponRepository.existsByCode(code)) {
+            throw new DuplicateResourceException("Coupon", "code", code);
+        }
+
+        Coupon coupon = Coupon.builder()
+                .code(code)
+                .discountType(request.getDiscountType())
+                .discountValue(request.getDiscountValue())
+                .minSubtotal(request.getMinSubtotal())
+                .usageLimit(request.getUsageLimit())
+                .expiresAt(request.getExpiresAt())
+                .active(true)
+                .build();
+
+        if (request.getCategoryId() != null) {
+            coupon.setCategory(categoryService.getEntityById(request.getCategoryId()));
+        }
+
+        couponRepository.save(coupon);
+        couponRegistry.refreshAfterCommit();
+
+        return CouponResponse.fromEntity(coupon);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CouponResponse> findAll() {
+        return couponRepository.findAll().stream()
+                .map(CouponResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deactivate(Long id) {
+        Coupon coupon = couponRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Coupon", id));
+
+        coupon.setActive(false);
+        couponRepository.save(coupon);
+        couponRegistry.refreshAfterCommit();
+    }
+}
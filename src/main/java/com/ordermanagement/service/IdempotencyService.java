@@ -0,0 +1,256 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.entity.User;
+import com.ordermanagement.exception.BusinessException;
+import com.ordermanagement.exception.DuplicateResourceException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// replays the first response for a (user, Idempotency-Key) pair. results live in redis so a
+// retry that lands on another instance is answered too; when redis is unreachable a local map
+// takes over. duplicates that arrive while the first request is still running wait for it
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final Duration RESULT_TTL = Duration.ofHours(24);
+    private static final Duration IN_PROGRESS_TTL = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final String IN_PROGRESS = "in-progress";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisHealth redisHealth;
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LocalEntry> localStore = new ConcurrentHashMap<>();
+
+    public <T> Result<T> execute(String scope, String idempotencyKey, Object request, Class<T> type, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new Result<>(action.get(), false);
+        }
+        if (idempotencyKey.length() > 255) {
+            throw new BusinessException("idempotency key cannot exceed 255 characters");
+        }
+
+        String key = "idempotency:" + scope + ":" + currentUserId() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return replay(awaitLocal(running), fingerprint, type);
+        }
+
+        try {
+            StoredResponse stored = acquireOrAwait(key);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, fingerprint, type);
+            }
+
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                // failures are not remembered, the client is free to retry with the same key
+                delete(key);
+                throw e;
+            }
+
+            StoredResponse result = new StoredResponse(fingerprint, objectMapper.valueToTree(response));
+            put(key, write(result), RESULT_TTL);
+            mine.complete(result);
+            return new Result<>(response, false);
+        } catch (RuntimeException | Error e) {
+            // local duplicates wait on mine: hand them the failure rather than leave them to time out
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredLocalEntries() {
+        long now = System.currentTimeMillis();
+        localStore.values().removeIf(entry -> entry.expiresAt < now);
+    }
+
+    // claims the key, or waits for whoever holds it (possibly another instance) to finish
+    private StoredResponse acquireOrAwait(String key) {
+        long deadline = System.currentTimeMillis() + IN_PROGRESS_TTL.toMillis();
+
+        while (true) {
+            if (putIfAbsent(key, IN_PROGRESS, IN_PROGRESS_TTL)) {
+                return null;
+            }
+
+            String value = get(key);
+            if (value != null && !IN_PROGRESS.equals(value)) {
+                return read(value);
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new DuplicateResourceException("a request with this idempotency key is still being processed");
+            }
+            sleep();
+        }
+    }
+
+    private StoredResponse awaitLocal(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(IN_PROGRESS_TTL.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("a request with this idempotency key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the original request", e);
+        }
+    }
+
+    private <T> Result<T> replay(StoredResponse stored, String fingerprint, Class<T> type) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new BusinessException("idempotency key was already used with a different request");
+        }
+        try {
+            return new Result<>(objectMapper.treeToValue(stored.getBody(), type), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read stored idempotent response", e);
+        }
+    }
+
+    private boolean putIfAbsent(String key, String value, Duration ttl) {
+        if (redisHealth.available()) {
+            try {
+                return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl));
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        long now = System.currentTimeMillis();
+        LocalEntry entry = new LocalEntry(value, now + ttl.toMillis());
+        LocalEntry current = localStore.compute(key, (k, existing) ->
+                existing == null || existing.expiresAt < now ? entry : existing);
+        return current == entry;
+    }
+
+    private String get(String key) {
+        if (redisHealth.available()) {
+            try {
+                return redisTemplate.opsForValue().get(key);
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        LocalEntry entry = localStore.get(key);
+        return entry != null && entry.expiresAt >= System.currentTimeMillis() ? entry.value : null;
+    }
+
+    private void put(String key, String value, Duration ttl) {
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.opsForValue().set(key, value, ttl);
+                return;
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        localStore.put(key, new LocalEntry(value, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    private void delete(String key) {
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.delete(key);
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        localStore.remove(key);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not fingerprint request", e);
+        }
+    }
+
+    private String write(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not store idempotent response", e);
+        }
+    }
+
+    private StoredResponse read(String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read stored idempotent response", e);
+        }
+    }
+
+    private Long currentUserId() {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return currentUser.getId();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the original request", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result<T> {
+        private final T body;
+        private final boolean replayed;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StoredResponse {
+        private String fingerprint;
+        private JsonNode body;
+    }
+
+    @AllArgsConstructor
+    private static class LocalEntry {
+        private final String value;
+        private final long expiresAt;
+    }
+}
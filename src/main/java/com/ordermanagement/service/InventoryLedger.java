@@ -0,0 +1,168 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.repository.InventoryReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// in-memory view of available stock for products sold through checkout. reservations are
+// taken with a cas on a per-product counter and journaled to inventory_reservations, which is
+// folded into products.stock_quantity in periodic batches instead of locking the product row
+// on every order. counters are per instance, so only enable this where a single instance owns
+// checkout for the products it serves
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class InventoryLedger {
+
+    private final InventoryReservationRepository reservationRepository;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        // anything journaled before a crash or restart is applied before the first counter is loaded
+        int products = reservationRepository.applyPending();
+        available.clear();
+        log.info("inventory ledger reconciled pending reservations for {} products", products);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        reservationRepository.applyPending();
+    }
+
+    public Set<Long> tryReserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new TreeMap<>();
+        Map<Long, AtomicInteger> counters = new TreeMap<>();
+        Set<Long> rejected = new LinkedHashSet<>();
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            AtomicInteger counter = counter(entry.getKey());
+            if (tryTake(counter, entry.getValue())) {
+                taken.put(entry.getKey(), entry.getValue());
+                counters.put(entry.getKey(), counter);
+            } else {
+                rejected.add(entry.getKey());
+            }
+        }
+
+        if (taken.isEmpty()) {
+            return rejected;
+        }
+
+        try {
+            reservationRepository.insertAll(taken);
+        } catch (RuntimeException e) {
+            giveBack(taken, counters);
+            throw e;
+        }
+
+        // back to the counters that were charged, whatever has happened to the map since
+        afterRollback(() -> giveBack(taken, counters));
+        return rejected;
+    }
+
+    public void release(Map<Long, Integer> quantities) {
+        Map<Long, Integer> negated = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> negated.put(productId, -quantity));
+        reservationRepository.insertAll(negated);
+
+        // released stock only becomes visible to other checkouts once the cancellation commits
+        afterCommit(() -> giveBack(quantities, available));
+    }
+
+    public int getAvailable(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            return counter.get();
+        }
+        Integer stored = reservationRepository.findAvailable(productId);
+        return stored != null ? stored : 0;
+    }
+
+    // for absolute stock edits: pending deltas are applied first so the new value isn't reduced by
+    // reservations it already accounts for, and once the edit commits the counter moves by the
+    // difference. it is never dropped and reloaded: the reload would miss reservations still in
+    // flight, and their rollback would then give back stock the new counter never took
+    public void setStockAfterCommit(Long productId, int stockQuantity) {
+        reservationRepository.applyPending();
+        Integer stored = reservationRepository.findStock(productId);
+        int delta = stockQuantity - (stored != null ? stored : 0);
+        // inside the map's lock for the product, so a counter being loaded right now can't miss it
+        afterCommit(() -> available.computeIfPresent(productId, (id, counter) -> {
+            counter.addAndGet(delta);
+            return counter;
+        }));
+    }
+
+    private AtomicInteger counter(Long productId) {
+        return available.computeIfAbsent(productId, id -> {
+            Integer stored = reservationRepository.findAvailable(id);
+            return new AtomicInteger(stored != null ? stored : 0);
+        });
+    }
+
+    private boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    // products without a counter are skipped, their counter loads the committed value later
+    private void giveBack(Map<Long, Integer> quantities, Map<Long, AtomicInteger> counters) {
+        quantities.forEach((productId, quantity) -> {
+            AtomicInteger counter = counters.get(productId);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
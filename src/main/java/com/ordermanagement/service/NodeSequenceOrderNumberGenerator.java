@@ -0,0 +1,152 @@
+package com.ordermanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// ORD-yyyyMMdd-XXXXXXX where the 7 base36 chars encode second of day (17 bits), node id
+// (7 bits) and a per-node sequence (12 bits). numbers are unique across nodes because no two
+// running instances hold the same node id, and across restarts of a node because it only resumes
+// after the last second the id was used (see OrderNumberNodeLease). a number is never issued for a
+// second the clock hasn't reached: callers past the 4096th in a second wait for the next one
+@Component
+@ConditionalOnProperty(name = "orders.number.strategy", havingValue = "node-sequence", matchIfMissing = true)
+public class NodeSequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final int NODE_BITS = 7;
+    private static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int SUFFIX_LENGTH = 7;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final LongSupplier nodeId;
+    private final LongSupplier resumeAfter;
+
+    // epoch second << SEQUENCE_BITS | sequence, advanced with a cas so callers only block once a
+    // second's sequence is used up
+    private final AtomicLong state = new AtomicLong();
+    private volatile Day day;
+
+    @Autowired
+    public NodeSequenceOrderNumberGenerator(OrderNumberNodeLease lease) {
+        this(lease::nodeId, lease::resumeAfter, Clock.systemDefaultZone());
+    }
+
+    NodeSequenceOrderNumberGenerator(LongSupplier nodeId, LongSupplier resumeAfter, Clock clock) {
+        this.clock = clock;
+        this.zone = clock.getZone();
+        this.nodeId = nodeId;
+        this.resumeAfter = resumeAfter;
+        this.day = Day.containing(clock.instant().getEpochSecond(), zone);
+    }
+
+    @Override
+    public String next() {
+        // read first, so a lapsed lease fails the call before a sequence number is spent
+        long node = nodeId.getAsLong();
+        long floor = resumeAfter.getAsLong();
+
+        while (true) {
+            long now = clock.instant().getEpochSecond();
+            if (now <= floor) {
+                // the id was in use up to this second, by an earlier run or another instance
+                awaitSecondAfter(floor);
+                continue;
+            }
+
+            long current = state.get();
+            long lastSecond = current >>> SEQUENCE_BITS;
+            long sequence = current & SEQUENCE_MASK;
+
+            long next;
+            if (now > lastSecond) {
+                next = now << SEQUENCE_BITS;
+            } else if (now == lastSecond && sequence < SEQUENCE_MASK) {
+                next = current + 1;
+            } else {
+                // 4096 numbers used up in this second, or the clock stepped back behind the last one
+                awaitSecondAfter(lastSecond);
+                continue;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return format(next >>> SEQUENCE_BITS, node, next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private void awaitSecondAfter(long second) {
+        long millis = (second + 1) * 1000 - clock.millis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the next order number second", e);
+        }
+    }
+
+    private String format(long second, long node, long sequence) {
+        Day current = day;
+        if (second < current.startSecond || second >= current.endSecond) {
+            current = Day.containing(second, zone);
+            day = current;
+        }
+
+        long secondOfDay = second - current.startSecond;
+        long value = (secondOfDay << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+
+        char[] chars = new char[4 + 8 + 1 + SUFFIX_LENGTH];
+        chars[0] = 'O';
+        chars[1] = 'R';
+        chars[2] = 'D';
+        chars[3] = '-';
+        System.arraycopy(current.digits, 0, chars, 4, 8);
+        chars[12] = '-';
+        for (int i = chars.length - 1; i > 12; i--) {
+            chars[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+        return new String(chars);
+    }
+
+    private static final class Day {
+
+        private final long startSecond;
+        private final long endSecond;
+        private final char[] digits;
+
+        private Day(long startSecond, long endSecond, char[] digits) {
+            this.startSecond = startSecond;
+            this.endSecond = endSecond;
+            this.digits = digits;
+        }
+
+        static Day containing(long epochSecond, ZoneId zone) {
+            LocalDate date = Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDate();
+            long start = date.atStartOfDay(zone).toEpochSecond();
+            long end = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+
+            int value = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+            char[] digits = new char[8];
+            for (int i = 7; i >= 0; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new Day(start, end, digits);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.entity.Order;
+import com.ordermanagement.dto.order.OrderResponse;
+import com.ordermanagement.dto.payment.PaymentResponse;
+import com.ordermanagement.repository.OrderArchiveRepository;
+import com.ordermanagement.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// moves delivered and cancelled orders older than orders.archive.after, payment included, into
+// orders_archive. work is done in chunks of batch-size orders, each in its own short transaction,
+// so row locks are held briefly and a failure only loses the current chunk. progress is exposed
+// as metrics
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter archivedCounter;
+    private final Counter failedBatchCounter;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         OrderArchiveRepository orderArchiveRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${orders.archive.after:180d}") Duration archiveAfter,
+                         @Value("${orders.archive.batch-size:500}") int batchSize,
+                         @Value("${orders.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.archivedCounter = Counter.builder("orders.archive.archived")
+                .description("orders moved to the archive")
+                .register(meterRegistry);
+        this.failedBatchCounter = Counter.builder("orders.archive.failed.batches")
+                .description("archive batches rolled back")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.archive.batch")
+                .description("time to archive one batch")
+                .register(meterRegistry);
+        Gauge.builder("orders.archive.backlog", backlog, AtomicLong::get)
+                .description("orders eligible for archiving at the start of the last run, minus those archived since")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+        backlog.set(transactionTemplate.execute(status -> orderArchiveRepository.countArchivable(cutoff)));
+
+        long archived = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int moved;
+            try {
+                moved = batchTimer.record(() -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+            } catch (RuntimeException e) {
+                failedBatchCounter.increment();
+                log.error("order archive batch failed, stopping this run after {} orders", archived, e);
+                return;
+            }
+
+            archived += moved;
+            archivedCounter.increment(moved);
+            backlog.addAndGet(-moved);
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        log.info("archived {} orders created before {}", archived, cutoff);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderArchiveRepository.findArchivableIds(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<OrderArchiveRepository.Entry> entries = new ArrayList<>(ids.size());
+        for (Order order : orderRepository.findAllWithDetailsByIdIn(ids)) {
+            entries.add(new OrderArchiveRepository.Entry(
+                    order.getId(),
+                    order.getOrderNumber(),
+                    order.getCustomer().getId(),
+                    order.getCustomer().getUser().getId(),
+                    order.getStatus(),
+                    order.getCreatedAt(),
+                    toDocument(OrderResponse.fromEntity(order)),
+                    order.getPayment() != null ? toDocument(PaymentResponse.fromEntity(order.getPayment())) : null));
+        }
+
+        orderArchiveRepository.insertAll(entries);
+        return orderArchiveRepository.deleteLive(ids);
+    }
+
+    private String toDocument(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize " + response.getClass().getSimpleName(), e);
+        }
+    }
+}
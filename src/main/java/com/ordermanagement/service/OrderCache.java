@@ -0,0 +1,158 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.event.OrderStatusChangedEvent;
+import com.ordermanagement.dto.order.OrderResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// read-through redis cache for order lookups by number. entries carry the owner's user id so
+// access can be checked without loading the order. every status change bumps a per-order version
+// and drops the entry, before and after the commit. a miss remembers the version it saw before
+// loading and only writes its copy back if the version is still the same, so a read that loaded the
+// order before the change committed can't put a stale copy back
+@Slf4j
+@Component
+public class OrderCache {
+
+    private static final String KEY_PREFIX = "orders:by-number:";
+    private static final String VERSION_SUFFIX = ":version";
+
+    private static final DefaultRedisScript<Long> WRITE_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '') ~= ARGV[1] then return 0 end "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1",
+            Long.class);
+    private static final DefaultRedisScript<Long> EVICT = new DefaultRedisScript<>(
+            "redis.call('del', KEYS[1]) redis.call('incr', KEYS[2]) "
+                    + "return redis.call('pexpire', KEYS[2], ARGV[1])",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public OrderCache(StringRedisTemplate redisTemplate,
+                      RedisHealth redisHealth,
+                      ObjectMapper objectMapper,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${orders.cache.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+        // null fields are left out to keep entries small
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.ttl = ttl;
+    }
+
+    // the loader runs in a read-only transaction of its own, so a cache hit never takes a connection
+    public CachedOrder get(String orderNumber, Supplier<CachedOrder> loader) {
+        String key = KEY_PREFIX + orderNumber;
+
+        Lookup lookup = read(key);
+        if (lookup.cached() != null) {
+            return lookup.cached();
+        }
+
+        CachedOrder loaded = transactionTemplate.execute(status -> loader.get());
+        if (lookup.version() != null) {
+            write(key, lookup.version(), loaded);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void evictBeforeCommit(OrderStatusChangedEvent event) {
+        evict(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictAfterCommit(OrderStatusChangedEvent event) {
+        evict(event);
+    }
+
+    private void evict(OrderStatusChangedEvent event) {
+        // a new order can't be cached yet
+        if (event.getPreviousStatus() == null || !redisHealth.available()) {
+            return;
+        }
+        String key = KEY_PREFIX + event.getOrderNumber();
+        try {
+            // the version outlives any entry written against an older one
+            redisTemplate.execute(EVICT, List.of(key, key + VERSION_SUFFIX), String.valueOf(ttl.toMillis()));
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        }
+    }
+
+    // the cached entry, or the version to write a freshly loaded one against. a null version
+    // means redis couldn't be read and nothing should be written
+    private Lookup read(String key) {
+        if (!redisHealth.available()) {
+            return new Lookup(null, null);
+        }
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(List.of(key, key + VERSION_SUFFIX));
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+            return new Lookup(null, null);
+        }
+        String value = values.get(0);
+        String version = values.get(1) != null ? values.get(1) : "";
+        if (value == null) {
+            return new Lookup(null, version);
+        }
+        try {
+            return new Lookup(objectMapper.readValue(value, CachedOrder.class), version);
+        } catch (IOException e) {
+            log.warn("dropping unreadable cached order {}", key, e);
+            return new Lookup(null, version);
+        }
+    }
+
+    private void write(String key, String version, CachedOrder order) {
+        if (!redisHealth.available()) {
+            return;
+        }
+        try {
+            // overwrites an unreadable entry too
+            redisTemplate.execute(WRITE_IF_UNCHANGED, List.of(key, key + VERSION_SUFFIX),
+                    version, objectMapper.writeValueAsString(order), String.valueOf(ttl.toMillis()));
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        } catch (IOException e) {
+            log.warn("could not cache order {}", key, e);
+        }
+    }
+
+    private record Lookup(CachedOrder cached, String version) {
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedOrder {
+        private Long ownerUserId;
+        private OrderResponse order;
+    }
+}
@@ -0,0 +1,233 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.entity.User;
+import com.ordermanagement.domain.event.OrderStatusChangedEvent;
+import com.ordermanagement.dto.order.OrderStatusNotification;
+import com.ordermanagement.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// server-sent events for order status changes. committed changes are published on a redis channel
+// and every instance forwards what it receives to its own subscribers, so a client sees changes
+// made through any node. each subscriber has a bounded buffer drained by a shared sender pool; a
+// client that lets its buffer fill up is disconnected and expected to reconnect
+@Slf4j
+@Service
+public class OrderEventStream implements MessageListener {
+
+    private static final String CHANNEL = "orders:status-events";
+    private static final String EVENT_NAME = "order-status";
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    private final ObjectMapper objectMapper;
+    private final CustomerService customerService;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+
+    public OrderEventStream(StringRedisTemplate redisTemplate,
+                            RedisHealth redisHealth,
+                            ObjectMapper objectMapper,
+                            CustomerService customerService,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${orders.stream.buffer-size:256}") int bufferSize,
+                            @Value("${orders.stream.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${orders.stream.timeout:30m}") Duration timeout,
+                            @Value("${orders.stream.sender-threads:4}") int senderThreads) {
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+        this.objectMapper = objectMapper;
+        this.customerService = customerService;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeout.toMillis();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // admins and managers see every order; everyone else only the orders of their own customer
+    // profile, the same rule validateOrderAccess applies to single orders
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("too many open order streams, retry shortly");
+        }
+
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String role = currentUser.getRole().name();
+        Long customerId = role.equals("ADMIN") || role.equals("MANAGER")
+                ? null
+                : customerService.getCurrentCustomerEntity().getId();
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, customerId);
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // sends the response headers right away instead of on the first change
+        subscriber.offer(Outgoing.HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        String payload = write(OrderStatusNotification.fromEvent(event));
+
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, payload);
+                return;
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        // without redis at least this instance's subscribers hear about it
+        dispatch(payload);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        dispatch(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(Outgoing.HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    private void dispatch(String payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Long customerId;
+        try {
+            customerId = objectMapper.readValue(payload, OrderStatusNotification.class).getCustomerId();
+        } catch (JsonProcessingException e) {
+            log.warn("ignoring unreadable order status message", e);
+            return;
+        }
+
+        Outgoing event = new Outgoing(payload);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.customerId == null || subscriber.customerId.equals(customerId)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private String write(OrderStatusNotification notification) {
+        try {
+            return objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize order status notification", e);
+        }
+    }
+
+    // a notification to send, or the heartbeat comment when payload is null
+    private record Outgoing(String payload) {
+
+        static final Outgoing HEARTBEAT = new Outgoing(null);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long customerId;
+        private final BlockingQueue<Outgoing> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long customerId) {
+            this.emitter = emitter;
+            this.customerId = customerId;
+        }
+
+        void offer(Outgoing event) {
+            if (!buffer.offer(event)) {
+                log.debug("order stream subscriber fell {} events behind, disconnecting", bufferSize);
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        // only one drain runs per subscriber at a time, so events are sent in order
+        private void drain() {
+            try {
+                Outgoing event;
+                while ((event = buffer.poll()) != null) {
+                    if (event.payload() == null) {
+                        emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                    } else {
+                        emitter.send(SseEmitter.event().name(EVENT_NAME).data(event.payload(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+
+            // something may have been queued between the last poll and clearing the flag
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.entity.User;
+import com.ordermanagement.domain.enums.IntakeStatus;
+import com.ordermanagement.domain.enums.UserRole;
+import com.ordermanagement.dto.order.CreateOrderRequest;
+import com.ordermanagement.dto.order.OrderIntakeResponse;
+import com.ordermanagement.dto.order.OrderResponse;
+import com.ordermanagement.exception.BusinessException;
+import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// async order intake (orders.intake.mode=async). requests are accepted into a bounded queue and
+// answered with a ticket; a fixed set of workers drains the queue and creates each batch in one
+// transaction. a full queue is reported as 503 so load is shed before the connection pool runs dry.
+// ticket state is copied to redis on every change so the status url answers on any instance
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.intake.mode", havingValue = "async")
+public class OrderIntakeService {
+
+    private static final Duration TICKET_RETENTION = Duration.ofHours(1);
+    private static final String KEY_PREFIX = "orders:intake:";
+
+    private final OrderService orderService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisHealth redisHealth;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Submission> queue;
+    private final int workers;
+    private final int batchSize;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public OrderIntakeService(OrderService orderService,
+                              StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              RedisHealth redisHealth,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${orders.intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${orders.intake.workers:4}") int workers,
+                              @Value("${orders.intake.batch-size:20}") int batchSize) {
+        this.orderService = orderService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisHealth = redisHealth;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // workers keep draining until the queue is empty, so accepted orders aren't dropped on shutdown
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("order intake stopped with {} orders still queued", queue.size());
+            executor.shutdownNow();
+        }
+    }
+
+    public OrderIntakeResponse submit(CreateOrderRequest request) {
+        if (!running) {
+            throw new ServiceUnavailableException("order intake is shutting down, retry shortly");
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) authentication.getPrincipal();
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), currentUser.getId());
+
+        // published before it is queued: once a worker holds the ticket, only the worker writes it,
+        // so a late QUEUED copy can't land on top of PROCESSING or COMPLETED
+        OrderIntakeResponse accepted = ticket.toResponse();
+        tickets.put(ticket.id, ticket);
+        publish(ticket);
+        if (!queue.offer(new Submission(ticket, request, authentication))) {
+            tickets.remove(ticket.id);
+            unpublish(ticket);
+            throw new ServiceUnavailableException("order intake queue is full, retry shortly");
+        }
+
+        return accepted;
+    }
+
+    public OrderIntakeResponse getStatus(String ticketId) {
+        // tickets accepted here are answered from memory, the rest from the copy in redis
+        StoredTicket stored;
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket != null) {
+            stored = new StoredTicket(ticket.userId, ticket.toResponse());
+        } else {
+            stored = lookup(ticketId);
+        }
+        if (stored == null) {
+            throw new ResourceNotFoundException("Order intake ticket", "id", ticketId);
+        }
+
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (currentUser.getRole() != UserRole.ADMIN && !stored.getUserId().equals(currentUser.getId())) {
+            throw new BusinessException("you don't have permission to access this order");
+        }
+
+        return stored.getResponse();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedTickets() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(TICKET_RETENTION);
+        tickets.values().removeIf(ticket -> ticket.finishedAt != null && ticket.finishedAt.isBefore(cutoff));
+    }
+
+    private void work() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("order intake worker failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // group commit: the whole batch goes in one transaction. if any order in it fails, the batch
+    // rolls back and every order is retried on its own so one bad request can't sink the rest
+    private void process(List<Submission> batch) {
+        for (Submission submission : batch) {
+            submission.ticket.status = IntakeStatus.PROCESSING;
+            publish(submission.ticket);
+        }
+
+        if (batch.size() > 1) {
+            try {
+                List<OrderResponse> created = transactionTemplate.execute(status -> {
+                    List<OrderResponse> responses = new ArrayList<>(batch.size());
+                    for (Submission submission : batch) {
+                        responses.add(createAs(submission));
+                    }
+                    return responses;
+                });
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).ticket.complete(created.get(i));
+                    publish(batch.get(i).ticket);
+                }
+                return;
+            } catch (RuntimeException e) {
+                log.debug("order intake batch of {} rolled back, retrying individually", batch.size(), e);
+            }
+        }
+
+        for (Submission submission : batch) {
+            try {
+                submission.ticket.complete(createAs(submission));
+            } catch (RuntimeException e) {
+                submission.ticket.fail(e.getMessage());
+            }
+            publish(submission.ticket);
+        }
+    }
+
+    private OrderResponse createAs(Submission submission) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(submission.authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            return orderService.create(submission.request);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void publish(Ticket ticket) {
+        if (!redisHealth.available()) {
+            return;
+        }
+        try {
+            String value = objectMapper.writeValueAsString(new StoredTicket(ticket.userId, ticket.toResponse()));
+            redisTemplate.opsForValue().set(KEY_PREFIX + ticket.id, value, TICKET_RETENTION);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not store order intake ticket", e);
+        } catch (DataAccessException e) {
+            log.warn("could not store order intake ticket {}, its status is only available on this instance", ticket.id, e);
+            redisHealth.markDown();
+        }
+    }
+
+    private void unpublish(Ticket ticket) {
+        if (!redisHealth.available()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(KEY_PREFIX + ticket.id);
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        }
+    }
+
+    private StoredTicket lookup(String ticketId) {
+        if (!redisHealth.available()) {
+            throw new ServiceUnavailableException("order intake status is temporarily unavailable, retry shortly");
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + ticketId);
+            return value != null ? objectMapper.readValue(value, StoredTicket.class) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read order intake ticket", e);
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+            throw new ServiceUnavailableException("order intake status is temporarily unavailable, retry shortly");
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StoredTicket {
+        private Long userId;
+        private OrderIntakeResponse response;
+    }
+
+    private record Submission(Ticket ticket, CreateOrderRequest request, Authentication authentication) {
+    }
+
+    private static class Ticket {
+
+        private final String id;
+        private final Long userId;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile IntakeStatus status = IntakeStatus.QUEUED;
+        private volatile OrderResponse order;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        Ticket(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        void complete(OrderResponse order) {
+            this.order = order;
+            this.status = IntakeStatus.COMPLETED;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        void fail(String error) {
+            this.error = error;
+            this.status = IntakeStatus.FAILED;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        OrderIntakeResponse toResponse() {
+            OrderResponse created = order;
+            return OrderIntakeResponse.builder()
+                    .ticketId(id)
+                    .status(status)
+                    .statusUrl("/api/orders/intake/" + id)
+                    .orderId(created != null ? created.getId() : null)
+                    .orderNumber(created != null ? created.getOrderNumber() : null)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.ordermanagement.service;
+
+// produces values for orders.order_number (varchar(20), unique)
+public interface OrderNumberGenerator {
+
+    String next();
+}
@@ -0,0 +1,174 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// the node id NodeSequenceOrderNumberGenerator puts in every number. an explicit
+// orders.number.node-id is used as is (the operator keeps them distinct); otherwise one of the 128
+// ids is leased in redis so no two running instances share one. startup fails if no id can be
+// leased. the lease is renewed in the background, and if it can't be renewed before it runs out
+// numbers stop being issued, since another instance is free to take the id from then on.
+// next to each id redis keeps the last second it was in use (written on renew and on release),
+// and whoever holds the id next only issues numbers for later seconds: a restart inside the same
+// second, a clock that stepped back or a takeover by a host whose clock runs behind would
+// otherwise hand out numbers that were already used
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.number.strategy", havingValue = "node-sequence", matchIfMissing = true)
+public class OrderNumberNodeLease {
+
+    private static final String KEY_PREFIX = "orders:number:node:";
+    private static final String LAST_SECOND_SUFFIX = ":last-second";
+
+    private static final DefaultRedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+    private static final DefaultRedisScript<Long> RECORD_LAST_SECOND = new DefaultRedisScript<>(
+            "if tonumber(redis.call('get', KEYS[1]) or '0') < tonumber(ARGV[1]) then redis.call('set', KEYS[1], ARGV[1]) end return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final boolean leased;
+    private final String token = UUID.randomUUID().toString();
+
+    private volatile long nodeId;
+    private volatile long validUntil;
+    private volatile long resumeAfter;
+
+    public OrderNumberNodeLease(StringRedisTemplate redisTemplate,
+                                @Value("${orders.number.node-id:-1}") long nodeId,
+                                @Value("${orders.number.lease-ttl:5m}") Duration ttl) {
+        if (nodeId > NodeSequenceOrderNumberGenerator.MAX_NODE_ID) {
+            throw new IllegalArgumentException("orders.number.node-id must be between 0 and "
+                    + NodeSequenceOrderNumberGenerator.MAX_NODE_ID);
+        }
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.leased = nodeId < 0;
+
+        if (leased) {
+            try {
+                if (!acquire()) {
+                    throw new IllegalStateException("all " + (NodeSequenceOrderNumberGenerator.MAX_NODE_ID + 1)
+                            + " order number node ids are leased; set orders.number.node-id explicitly");
+                }
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("could not lease an order number node id from redis; "
+                        + "set orders.number.node-id explicitly to run without it", e);
+            }
+            log.info("leased order number node id {}", this.nodeId);
+        } else {
+            // redis is optional with an explicit id, so the last second is only used when it can be read
+            try {
+                this.resumeAfter = readLastSecond(nodeId);
+            } catch (DataAccessException e) {
+                log.warn("could not read the last second order number node id {} was used", nodeId, e);
+            }
+            this.nodeId = nodeId;
+            this.validUntil = Long.MAX_VALUE;
+        }
+    }
+
+    public long nodeId() {
+        if (System.currentTimeMillis() >= validUntil) {
+            throw new ServiceUnavailableException("order numbers are unavailable until the node id lease is renewed");
+        }
+        return nodeId;
+    }
+
+    // numbers may only be issued for seconds after this one
+    public long resumeAfter() {
+        return resumeAfter;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.number.lease-renew-interval-ms:60000}")
+    public synchronized void renew() {
+        recordLastSecond();
+        if (!leased) {
+            return;
+        }
+        // the lease is only counted from before the call, so local validity never outlasts redis's ttl
+        long started = System.currentTimeMillis();
+        try {
+            Long renewed = redisTemplate.execute(RENEW, List.of(KEY_PREFIX + nodeId), token,
+                    String.valueOf(ttl.toMillis()));
+            if (renewed != null && renewed == 1) {
+                validUntil = started + ttl.toMillis();
+                return;
+            }
+
+            log.warn("order number node id {} lease was lost, leasing a new one", nodeId);
+            validUntil = 0;
+            if (!acquire()) {
+                log.error("no free order number node id, order creation is paused until one frees up");
+            }
+        } catch (DataAccessException e) {
+            log.warn("could not renew order number node id {} lease, numbers stop being issued in {} ms",
+                    nodeId, Math.max(0, validUntil - started), e);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        recordLastSecond();
+        if (!leased) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + nodeId), token);
+        } catch (DataAccessException e) {
+            log.debug("could not release order number node id {}, it expires on its own", nodeId, e);
+        }
+    }
+
+    // numbers never run ahead of the clock, so the current second bounds everything issued so far
+    private void recordLastSecond() {
+        long second = System.currentTimeMillis() / 1000;
+        try {
+            redisTemplate.execute(RECORD_LAST_SECOND, List.of(KEY_PREFIX + nodeId + LAST_SECOND_SUFFIX),
+                    String.valueOf(second));
+        } catch (DataAccessException e) {
+            log.debug("could not record the last second order number node id {} was used", nodeId, e);
+        }
+    }
+
+    private long readLastSecond(long id) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + id + LAST_SECOND_SUFFIX);
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    // tries every id once, starting at a random one so instances booting together don't all race for 0
+    private boolean acquire() {
+        long ids = NodeSequenceOrderNumberGenerator.MAX_NODE_ID + 1;
+        long start = ThreadLocalRandom.current().nextLong(ids);
+        for (long i = 0; i < ids; i++) {
+            long candidate = (start + i) % ids;
+            long started = System.currentTimeMillis();
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + candidate, token, ttl))) {
+                // set before the id, so a caller that sees the new id also sees its last second
+                resumeAfter = readLastSecond(candidate);
+                nodeId = candidate;
+                validUntil = started + ttl.toMillis();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.repository.OrderPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// keeps the monthly partitions of orders and order_items ahead of time so new rows never land in
+// the default partition, and optionally detaches months older than the retention period. detached
+// partitions stay in the database as ordinary tables to be dumped or dropped by hand
+@Slf4j
+@Component
+public class OrderPartitionMaintenance {
+
+    private static final List<String> TABLES = List.of("orders", "order_items");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("^(orders|order_items)_(\\d{4})_(\\d{2})$");
+
+    private final OrderPartitionRepository orderPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public OrderPartitionMaintenance(OrderPartitionRepository orderPartitionRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${orders.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${orders.partitions.retention-months:0}") int retentionMonths) {
+        this.orderPartitionRepository = orderPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        // another instance may be doing the same; whatever fails here is retried on the next run
+        try {
+            createUpcomingPartitions();
+            if (retentionMonths > 0) {
+                detachExpiredPartitions();
+            }
+        } catch (DataAccessException e) {
+            log.warn("order partition maintenance failed", e);
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate monthStart = current.plusMonths(i).atDay(1);
+                for (String table : TABLES) {
+                    long moved = orderPartitionRepository.ensureMonthlyPartition(table, monthStart);
+                    if (moved > 0) {
+                        log.error("{} rows of {} for {} had landed in the default partition and were moved into "
+                                + "the new partition; partition maintenance is falling behind", moved, table, monthStart);
+                    }
+                }
+            }
+        });
+    }
+
+    // each detach is its own short transaction: it only needs a brief lock on the parent table
+    private void detachExpiredPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+
+        for (String table : TABLES) {
+            for (String partition : orderPartitionRepository.findPartitions(table)) {
+                Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+                if (!matcher.matches() || !matcher.group(1).equals(table)) {
+                    continue;
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+                if (month.isBefore(oldestKept)) {
+                    transactionTemplate.executeWithoutResult(status -> orderPartitionRepository.detachPartition(table, partition));
+                    log.info("detached partition {} from {}", partition, table);
+                }
+            }
+        }
+    }
+}
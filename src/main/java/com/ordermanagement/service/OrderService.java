@@ -1,24 +1,40 @@
 package com.ordermanagement.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ordermanagement.domain.entity.*;
 import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.dto.common.Cursor;
+import com.ordermanagement.dto.common.CursorPageResponse;
 import com.ordermanagement.dto.common.PageResponse;
 import com.ordermanagement.dto.order.*;
 import com.ordermanagement.exception.BusinessException;
 import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.repository.OrderArchiveRepository;
+import com.ordermanagement.repository.OrderItemRepository;
 import com.ordermanagement.repository.OrderRepository;
+import com.ordermanagement.repository.projection.OrderHistoryEntry;
+import com.ordermanagement.repository.projection.OrderItemRow;
+import com.ordermanagement.repository.projection.OrderRow;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,109 +42,228 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductService productService;
     private final CustomerService customerService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final CouponRegistry couponRegistry;
+    private final ShippingRateEngine shippingRateEngine;
+    private final OrderStatusCounters orderStatusCounters;
+    private final OrderCache orderCache;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public OrderResponse create(CreateOrderRequest request) {
         Customer customer = customerService.getCurrentCustomerEntity();
-        String orderNumber = generateOrderNumber();
 
-        Order order = Order.builder()
-                .orderNumber(orderNumber)
-                .customer(customer)
-                .status(OrderStatus.PENDING_PAYMENT)
-                .subtotal(BigDecimal.ZERO)
-                .discount(BigDecimal.ZERO)
-                .shippingCost(calculateShippingCost(request))
-                .total(BigDecimal.ZERO)
-                .notes(request.getNotes())
-                .build();
+        Map<Long, Integer> demand = aggregateDemand(request.getItems());
+        Map<Long, Product> products = productService.getEntitiesByIds(demand.keySet());
 
-        if (request.getShippingAddress() != null) {
-            order.setShippingAddress(request.getShippingAddress().toEntity());
-        } else if (customer.getAddress() != null) {
-            order.setShippingAddress(customer.getAddress());
-        }
+        Order order = buildOrder(customer, request, products);
+        productService.decreaseStock(demand);
 
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productService.getEntityById(itemRequest.getProductId());
+        orderRepository.save(order);
+
+        return OrderResponse.fromEntity(order);
+    }
+
+    // creates many orders for the current customer in one transaction. products are loaded once,
+    // stock is taken with one batched decrement for the whole batch and orders are inserted with
+    // jdbc batching. orders that can't be fulfilled are reported individually instead of failing the batch
+    @Transactional
+    public BatchOrderResponse createBatch(List<CreateOrderRequest> requests) {
+        Customer customer = customerService.getCurrentCustomerEntity();
+
+        Set<Long> productIds = requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> products = productService.findEntitiesByIds(productIds);
 
-            if (!product.hasStock(itemRequest.getQuantity())) {
-                throw new BusinessException(
-                        String.format("insufficient stock for product '%s'. available: %d, requested: %d",
-                                product.getName(), product.getStockQuantity(), itemRequest.getQuantity())
-                );
+        Map<Long, Integer> remaining = new HashMap<>();
+        products.forEach((id, product) -> remaining.put(id, product.getStockQuantity()));
+
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        Map<Integer, Map<Long, Integer>> accepted = new LinkedHashMap<>();
+        Map<Long, Integer> totalDemand = new TreeMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            Map<Long, Integer> demand = aggregateDemand(requests.get(i).getItems());
+            String error = checkAvailability(demand, products, remaining);
+
+            if (error != null) {
+                results[i] = BatchOrderResult.failure(i, error);
+                continue;
             }
 
-            OrderItem item = OrderItem.builder()
-                    .product(product)
-                    .quantity(itemRequest.getQuantity())
-                    .unitPrice(product.getPrice())
-                    .total(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())))
-                    .build();
+            demand.forEach((productId, quantity) -> {
+                remaining.merge(productId, -quantity, Integer::sum);
+                totalDemand.merge(productId, quantity, Integer::sum);
+            });
+            accepted.put(i, demand);
+        }
 
-            order.addItem(item);
-            productService.decreaseStock(product.getId(), itemRequest.getQuantity());
+        Set<Long> rejected = totalDemand.isEmpty() ? Set.of() : productService.tryDecreaseStock(totalDemand);
+        if (!rejected.isEmpty()) {
+            // stock moved between the read and the decrement: drop the orders touching those products
+            // and give back what they had taken from the others
+            Map<Long, Integer> giveBack = new TreeMap<>();
+            accepted.entrySet().removeIf(entry -> {
+                if (entry.getValue().keySet().stream().noneMatch(rejected::contains)) {
+                    return false;
+                }
+                entry.getValue().forEach((productId, quantity) -> {
+                    if (!rejected.contains(productId)) {
+                        giveBack.merge(productId, quantity, Integer::sum);
+                    }
+                });
+                results[entry.getKey()] = BatchOrderResult.failure(entry.getKey(), "insufficient stock");
+                return true;
+            });
+            if (!giveBack.isEmpty()) {
+                productService.increaseStock(giveBack);
+            }
         }
 
-        if (request.getCouponCode() != null) {
-            BigDecimal discount = applyCoupon(request.getCouponCode(), order.getSubtotal());
-            order.setDiscount(discount);
-            order.recalculateTotal();
+        List<Order> orders = new ArrayList<>(accepted.size());
+        Map<Long, Integer> couponRejects = new TreeMap<>();
+        accepted.entrySet().removeIf(entry -> {
+            try {
+                orders.add(buildOrder(customer, requests.get(entry.getKey()), products));
+                return false;
+            } catch (BusinessException e) {
+                // coupon no longer valid or used up: this order's stock goes back
+                entry.getValue().forEach((productId, quantity) -> couponRejects.merge(productId, quantity, Integer::sum));
+                results[entry.getKey()] = BatchOrderResult.failure(entry.getKey(), e.getMessage());
+                return true;
+            }
+        });
+        if (!couponRejects.isEmpty()) {
+            productService.increaseStock(couponRejects);
         }
+        orderRepository.saveAll(orders);
 
-        orderRepository.save(order);
+        int position = 0;
+        for (Integer index : accepted.keySet()) {
+            results[index] = BatchOrderResult.success(index, OrderResponse.fromEntity(orders.get(position++)));
+        }
 
-        return OrderResponse.fromEntity(order);
+        return BatchOrderResponse.builder()
+                .accepted(orders.size())
+                .rejected(requests.size() - orders.size())
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Transactional(readOnly = true)
     public OrderResponse findById(Long id) {
-        Order order = orderRepository.findByIdWithItems(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", id));
+        Order order = orderRepository.findByIdWithItems(id).orElse(null);
+        if (order == null) {
+            OrderArchiveRepository.ArchivedOrder archived = orderArchiveRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", id));
+            validateOrderAccess(archived.getOwnerUserId());
+            return fromArchive(archived);
+        }
 
         validateOrderAccess(order);
 
         return OrderResponse.fromEntity(order);
     }
 
-    @Transactional(readOnly = true)
+    // served from OrderCache; only a miss reaches the database
     public OrderResponse findByOrderNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumberWithDetails(orderNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
+        OrderCache.CachedOrder cached = orderCache.get(orderNumber, () -> {
+            Order order = orderRepository.findByOrderNumberWithDetails(orderNumber).orElse(null);
+            if (order != null) {
+                return new OrderCache.CachedOrder(order.getCustomer().getUser().getId(), OrderResponse.fromEntity(order));
+            }
+            OrderArchiveRepository.ArchivedOrder archived = orderArchiveRepository.findByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
+            return new OrderCache.CachedOrder(archived.getOwnerUserId(), fromArchive(archived));
+        });
 
-        validateOrderAccess(order);
+        validateOrderAccess(cached.getOwnerUserId());
 
-        return OrderResponse.fromEntity(order);
+        return cached.getOrder();
     }
 
+    // the customer's whole history, archived orders included
     @Transactional(readOnly = true)
     public PageResponse<OrderResponse> findMyOrders(Pageable pageable) {
         Customer customer = customerService.getCurrentCustomerEntity();
+        Page<OrderHistoryEntry> history = findHistory(customer.getId(), pageable);
+
+        // page over ids first: paging a fetch join would make hibernate paginate in memory
+        Map<Long, OrderResponse> orders = new HashMap<>(findArchived(historyIds(history, true)));
+        List<Long> live = historyIds(history, false);
+        if (!live.isEmpty()) {
+            orderRepository.findAllWithDetailsByIdIn(live)
+                    .forEach(order -> orders.put(order.getId(), OrderResponse.fromEntity(order)));
+        }
 
-        Page<OrderResponse> page = orderRepository.findByCustomerId(customer.getId(), pageable)
-                .map(order -> {
-                    return orderRepository.findByIdWithItems(order.getId())
-                            .map(OrderResponse::fromEntity)
-                            .orElse(null);
-                });
+        return PageResponse.from(history.map(entry -> orders.get(entry.getId())));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<OrderSummaryResponse> findMyOrderSummaries(Pageable pageable) {
+        Customer customer = customerService.getCurrentCustomerEntity();
+        Page<OrderHistoryEntry> history = findHistory(customer.getId(), pageable);
+
+        Map<Long, OrderSummaryResponse> summaries = new HashMap<>();
+        findArchived(historyIds(history, true))
+                .forEach((id, order) -> summaries.put(id, OrderSummaryResponse.fromOrder(order)));
+        List<Long> live = historyIds(history, false);
+        if (!live.isEmpty()) {
+            orderRepository.findSummariesByIdIn(live)
+                    .forEach(row -> summaries.put(row.getId(), OrderSummaryResponse.fromRow(row)));
+        }
+
+        return PageResponse.from(history.map(entry -> summaries.get(entry.getId())));
+    }
 
-        return PageResponse.from(page);
+    @Transactional(readOnly = true)
+    public PageResponse<OrderSummaryResponse> findAllSummaries(Pageable pageable) {
+        return PageResponse.from(orderRepository.findAllSummaries(pageable).map(OrderSummaryResponse::fromRow));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<OrderSummaryResponse> findSummariesByStatus(OrderStatus status, Pageable pageable) {
+        return PageResponse.from(orderRepository.findSummariesByStatus(status, pageable).map(OrderSummaryResponse::fromRow));
     }
 
     @Transactional(readOnly = true)
     public PageResponse<OrderResponse> findAll(Pageable pageable) {
-        Page<OrderResponse> page = orderRepository.findAll(pageable)
-                .map(OrderResponse::fromEntity);
-        return PageResponse.from(page);
+        return toResponsePage(orderRepository.findAllRows(pageable));
     }
 
     @Transactional(readOnly = true)
     public PageResponse<OrderResponse> findByStatus(OrderStatus status, Pageable pageable) {
-        Page<OrderResponse> page = orderRepository.findByStatus(status, pageable)
-                .map(OrderResponse::fromEntity);
-        return PageResponse.from(page);
+        return toResponsePage(orderRepository.findRowsByStatus(status, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> findAll(String cursor, int size) {
+        size = Math.clamp(size, 1, CursorPageResponse.MAX_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+        Cursor before = cursor != null ? Cursor.decode(cursor) : null;
+
+        List<OrderRow> rows = before == null
+                ? orderRepository.findFirstRows(limit)
+                : orderRepository.findRowsBefore(before.getKeyAsDateTime(), before.getId(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> findByStatus(OrderStatus status, String cursor, int size) {
+        size = Math.clamp(size, 1, CursorPageResponse.MAX_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+        Cursor before = cursor != null ? Cursor.decode(cursor) : null;
+
+        List<OrderRow> rows = before == null
+                ? orderRepository.findFirstRowsByStatus(status, limit)
+                : orderRepository.findRowsByStatusBefore(status, before.getKeyAsDateTime(), before.getId(), limit);
+        return toCursorPage(rows, size);
     }
 
     @Transactional
@@ -144,14 +279,12 @@ public class OrderService {
                 if (order.getStatus() != OrderStatus.PAID) {
                     throw new BusinessException("order must be paid before processing");
                 }
-                order.setStatus(OrderStatus.PROCESSING);
+                order.startProcessing();
             }
             case SHIPPED -> order.ship();
             case DELIVERED -> order.deliver();
             case CANCELLED -> {
-                for (OrderItem item : order.getItems()) {
-                    productService.increaseStock(item.getProduct().getId(), item.getQuantity());
-                }
+                productService.increaseStock(aggregateQuantities(order.getItems()));
                 order.cancel();
             }
             default -> throw new BusinessException("invalid status transition");
@@ -169,9 +302,7 @@ public class OrderService {
 
         validateOrderAccess(order);
 
-        for (OrderItem item : order.getItems()) {
-            productService.increaseStock(item.getProduct().getId(), item.getQuantity());
-        }
+        productService.increaseStock(aggregateQuantities(order.getItems()));
 
         order.cancel();
         order.setNotes(order.getNotes() != null ? order.getNotes() + " | cancelled: " + reason : "cancelled: " + reason);
@@ -181,43 +312,171 @@ public class OrderService {
         return OrderResponse.fromEntity(order);
     }
 
-    @Transactional(readOnly = true)
     public OrderStats getOrderStats() {
+        Map<OrderStatus, Long> counts = orderStatusCounters.getCounts();
         return OrderStats.builder()
-                .pendingPayment(orderRepository.countByStatus(OrderStatus.PENDING_PAYMENT))
-                .paid(orderRepository.countByStatus(OrderStatus.PAID))
-                .processing(orderRepository.countByStatus(OrderStatus.PROCESSING))
-                .shipped(orderRepository.countByStatus(OrderStatus.SHIPPED))
-                .delivered(orderRepository.countByStatus(OrderStatus.DELIVERED))
-                .cancelled(orderRepository.countByStatus(OrderStatus.CANCELLED))
+                .pendingPayment(counts.get(OrderStatus.PENDING_PAYMENT))
+                .paid(counts.get(OrderStatus.PAID))
+                .processing(counts.get(OrderStatus.PROCESSING))
+                .shipped(counts.get(OrderStatus.SHIPPED))
+                .delivered(counts.get(OrderStatus.DELIVERED))
+                .cancelled(counts.get(OrderStatus.CANCELLED))
                 .build();
     }
 
-    private String generateOrderNumber() {
-        String datePart = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uniquePart = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-        return "ORD-" + datePart + "-" + uniquePart;
+    private Order buildOrder(Customer customer, CreateOrderRequest request, Map<Long, Product> products) {
+        Order order = Order.builder()
+                .orderNumber(orderNumberGenerator.next())
+                .customer(customer)
+                .customerName(customer.getUser().getName())
+                .status(OrderStatus.PENDING_PAYMENT)
+                .subtotal(BigDecimal.ZERO)
+                .discount(BigDecimal.ZERO)
+                .shippingCost(BigDecimal.ZERO)
+                .total(BigDecimal.ZERO)
+                .notes(request.getNotes())
+                .build();
+
+        if (request.getShippingAddress() != null) {
+            order.setShippingAddress(request.getShippingAddress().toEntity());
+        } else if (customer.getAddress() != null) {
+            order.setShippingAddress(customer.getAddress());
+        }
+
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            Product product = products.get(itemRequest.getProductId());
+
+            OrderItem item = OrderItem.builder()
+                    .product(product)
+                    .quantity(itemRequest.getQuantity())
+                    .unitPrice(product.getPrice())
+                    .total(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())))
+                    .build();
+
+            order.addItem(item);
+        }
+
+        String zipCode = order.getShippingAddress() != null ? order.getShippingAddress().getZipCode() : null;
+        order.setShippingCost(shippingRateEngine.quote(zipCode, order.getItems()));
+        order.recalculateTotal();
+
+        if (request.getCouponCode() != null && !request.getCouponCode().isBlank()) {
+            BigDecimal discount = couponRegistry.redeem(request.getCouponCode(), order.getSubtotal(), order.getItems());
+            order.setCouponCode(CouponRegistry.normalize(request.getCouponCode()));
+            order.setDiscount(discount);
+            order.recalculateTotal();
+        }
+
+        order.place();
+        return order;
+    }
+
+    // admin listings are built from flat projections: one query for the page, one for all its
+    // items, and no managed entities for the persistence context to track
+    private PageResponse<OrderResponse> toResponsePage(Page<OrderRow> rows) {
+        Map<Long, List<OrderItemResponse>> items = loadItemRows(rows.map(OrderRow::getId).getContent());
+        return PageResponse.from(rows.map(row -> OrderResponse.fromRow(row, items.getOrDefault(row.getId(), List.of()))));
     }
 
-    private BigDecimal calculateShippingCost(CreateOrderRequest request) {
-        return new BigDecimal("15.00");
+    private CursorPageResponse<OrderResponse> toCursorPage(List<OrderRow> rows, int size) {
+        Map<Long, List<OrderItemResponse>> items = loadItemRows(rows.stream().map(OrderRow::getId).toList());
+        return CursorPageResponse.from(rows, size,
+                row -> Cursor.encode(row.getCreatedAt(), row.getId()),
+                row -> OrderResponse.fromRow(row, items.getOrDefault(row.getId(), List.of())));
     }
 
-    private BigDecimal applyCoupon(String couponCode, BigDecimal subtotal) {
-        if ("FIRST10".equalsIgnoreCase(couponCode)) {
-            return subtotal.multiply(new BigDecimal("0.10"));
+    private Map<Long, List<OrderItemResponse>> loadItemRows(List<Long> orderIds) {
+        Map<Long, List<OrderItemResponse>> items = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (OrderItemRow item : orderItemRepository.findRowsByOrderIdIn(orderIds)) {
+                items.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>()).add(OrderItemResponse.fromRow(item));
+            }
+        }
+        return items;
+    }
+
+    private String checkAvailability(Map<Long, Integer> demand, Map<Long, Product> products, Map<Long, Integer> remaining) {
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                return String.format("Product not found with id: %d", entry.getKey());
+            }
+
+            int available = remaining.get(entry.getKey());
+            if (available < entry.getValue()) {
+                return String.format("insufficient stock for product '%s'. available: %d, requested: %d",
+                        product.getName(), Math.max(available, 0), entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    private Map<Long, Integer> aggregateDemand(List<OrderItemRequest> items) {
+        Map<Long, Integer> demand = new TreeMap<>();
+        for (OrderItemRequest item : items) {
+            demand.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return demand;
+    }
+
+    private Map<Long, Integer> aggregateQuantities(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // newest first across orders and orders_archive; the history query fixes the order, so the
+    // pageable's sort is not applied
+    private Page<OrderHistoryEntry> findHistory(Long customerId, Pageable pageable) {
+        long total = orderRepository.countHistoryByCustomerId(customerId);
+        List<OrderHistoryEntry> entries = total > pageable.getOffset()
+                ? orderRepository.findHistoryByCustomerId(customerId, pageable.getPageSize(), pageable.getOffset())
+                : List.of();
+        return new PageImpl<>(entries, pageable, total);
+    }
+
+    private static List<Long> historyIds(Page<OrderHistoryEntry> history, boolean archived) {
+        return history.stream()
+                .filter(entry -> entry.isArchived() == archived)
+                .map(OrderHistoryEntry::getId)
+                .toList();
+    }
+
+    private Map<Long, OrderResponse> findArchived(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return orderArchiveRepository.findDocumentsByIdIn(ids).stream()
+                .map(this::readArchived)
+                .collect(Collectors.toMap(OrderResponse::getId, order -> order));
+    }
+
+    private OrderResponse fromArchive(OrderArchiveRepository.ArchivedOrder archived) {
+        return readArchived(archived.getDocument());
+    }
+
+    private OrderResponse readArchived(String document) {
+        try {
+            return objectMapper.readValue(document, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read archived order", e);
         }
-        return BigDecimal.ZERO;
     }
 
     private void validateOrderAccess(Order order) {
+        validateOrderAccess(order.getCustomer().getUser().getId());
+    }
+
+    private void validateOrderAccess(Long ownerUserId) {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         if (currentUser.getRole().name().equals("ADMIN") || currentUser.getRole().name().equals("MANAGER")) {
             return;
         }
 
-        if (!order.getCustomer().getUser().getId().equals(currentUser.getId())) {
+        if (!ownerUserId.equals(currentUser.getId())) {
             throw new BusinessException("you don't have permission to access this order");
         }
     }
@@ -0,0 +1,162 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.domain.event.OrderStatusChangedEvent;
+import com.ordermanagement.repository.OrderArchiveRepository;
+import com.ordermanagement.repository.OrderRepository;
+import com.ordermanagement.repository.projection.OrderStatusCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// order counts per status, moved by one on every committed transition instead of counted on read.
+// the shared counts live in a redis hash so every instance sees the same numbers; each instance
+// also keeps its own copy, used while redis is unreachable. both are periodically corrected from a
+// single group by query, which also repairs any increment lost to a crash between commit and update
+@Slf4j
+@Component
+public class OrderStatusCounters {
+
+    private static final String KEY = "orders:status-counts";
+    private static final String RECONCILE_LOCK_KEY = "orders:status-counts:reconcile-lock";
+    private static final Duration RECONCILE_LOCK_TTL = Duration.ofSeconds(30);
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLongArray localCounts = new AtomicLongArray(STATUSES.length);
+
+    public OrderStatusCounters(OrderRepository orderRepository,
+                               OrderArchiveRepository orderArchiveRepository,
+                               StringRedisTemplate redisTemplate,
+                               RedisHealth redisHealth,
+                               PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            add(event.getPreviousStatus(), -1);
+        }
+        add(event.getStatus(), 1);
+    }
+
+    public Map<OrderStatus, Long> getCounts() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        if (redisHealth.available()) {
+            try {
+                Map<Object, Object> shared = redisTemplate.opsForHash().entries(KEY);
+                for (OrderStatus status : STATUSES) {
+                    Object value = shared.get(status.name());
+                    counts.put(status, value != null ? Long.parseLong(value.toString()) : 0L);
+                }
+                return counts;
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+        for (OrderStatus status : STATUSES) {
+            counts.put(status, localCounts.get(status.ordinal()));
+        }
+        return counts;
+    }
+
+    // every instance corrects its local copy; only the one holding the lock corrects the shared hash.
+    // counters are never overwritten: each one is moved by the gap between the query's total and the
+    // value it had just before the query, so transitions recorded while the query runs are kept. a
+    // transition whose increment lands between that read and the query's snapshot is counted twice
+    // until the next reconcile
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${orders.status-counters.reconcile-interval-ms:300000}",
+            initialDelayString = "${orders.status-counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long[] sharedBefore = lockAndReadShared();
+        long[] localBefore = new long[STATUSES.length];
+        for (int i = 0; i < localBefore.length; i++) {
+            localBefore[i] = localCounts.get(i);
+        }
+
+        long[] totals = new long[STATUSES.length];
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OrderStatusCount row : orderRepository.countGroupedByStatus()) {
+                totals[row.getStatus().ordinal()] += row.getTotal();
+            }
+            // archived orders still count: archiving moves an order, it doesn't change its status
+            orderArchiveRepository.countByStatus().forEach((orderStatus, count) -> totals[orderStatus.ordinal()] += count);
+        });
+        for (int i = 0; i < totals.length; i++) {
+            localCounts.addAndGet(i, totals[i] - localBefore[i]);
+        }
+
+        if (sharedBefore == null) {
+            return;
+        }
+        try {
+            for (OrderStatus status : STATUSES) {
+                long drift = totals[status.ordinal()] - sharedBefore[status.ordinal()];
+                if (drift != 0) {
+                    redisTemplate.opsForHash().increment(KEY, status.name(), drift);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("could not reconcile shared order status counters", e);
+            redisHealth.markDown();
+        }
+    }
+
+    // the shared counts as they are before the query, or null if another instance is reconciling
+    // them or redis is unreachable
+    private long[] lockAndReadShared() {
+        if (!redisHealth.available()) {
+            return null;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, "1", RECONCILE_LOCK_TTL))) {
+                return null;
+            }
+            Map<Object, Object> shared = redisTemplate.opsForHash().entries(KEY);
+            long[] counts = new long[STATUSES.length];
+            for (OrderStatus status : STATUSES) {
+                Object value = shared.get(status.name());
+                counts[status.ordinal()] = value != null ? Long.parseLong(value.toString()) : 0L;
+            }
+            return counts;
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+            return null;
+        }
+    }
+
+    private void add(OrderStatus status, long delta) {
+        localCounts.addAndGet(status.ordinal(), delta);
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.opsForHash().increment(KEY, status.name(), delta);
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ordermanagement.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ordermanagement.domain.entity.Order;
 import com.ordermanagement.domain.entity.Payment;
 import com.ordermanagement.domain.enums.OrderStatus;
@@ -9,6 +11,7 @@ import com.ordermanagement.dto.payment.PaymentResponse;
 import com.ordermanagement.dto.payment.ProcessPaymentRequest;
 import com.ordermanagement.exception.BusinessException;
 import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.repository.OrderArchiveRepository;
 import com.ordermanagement.repository.OrderRepository;
 import com.ordermanagement.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +26,8 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public PaymentResponse processPayment(ProcessPaymentRequest request) {
@@ -63,10 +68,19 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public PaymentResponse findByOrderId(Long orderId) {
-        Payment payment = paymentRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
+        Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        if (payment != null) {
+            return PaymentResponse.fromEntity(payment);
+        }
 
-        return PaymentResponse.fromEntity(payment);
+        // archived orders keep their payment in the archive
+        String archived = orderArchiveRepository.findPaymentByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
+        try {
+            return objectMapper.readValue(archived, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not read archived payment", e);
+        }
     }
 
     @Transactional
@@ -0,0 +1,514 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ordermanagement.domain.event.ProductChangedEvent;
+import com.ordermanagement.dto.common.PageResponse;
+import com.ordermanagement.dto.common.Versioned;
+import com.ordermanagement.dto.product.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// two-level cache for catalog reads: a bounded in-process cache in front of redis. product details
+// are evicted by id when a product changes, and when its stock changes unless the caller knows
+// the new figure (the inventory ledger does), in which case the cached copies are updated in
+// place so the products selling most don't keep missing. listing pages can't be evicted one by one,
+// so their keys carry a catalog generation that is bumped on every product change; stock changes
+// don't bump it and listings rely on the short page ttl for stock figures. evictions are broadcast
+// on a redis channel so every instance drops its local copies. each entry carries an etag for
+// conditional GETs.
+//
+// a product loaded before a change commits must not be cached after the change's eviction. in
+// redis every eviction bumps a per-product version, and a loaded product is only written back if
+// the version it saw before loading is unchanged. locally, any product eviction bumps a counter,
+// and a copy put while the counter moved is dropped again
+@Slf4j
+@Component
+public class ProductCache implements MessageListener {
+
+    private static final String PRODUCT_KEY_PREFIX = "catalog:product:";
+    private static final String SKU_KEY_PREFIX = "catalog:sku:";
+    private static final String PAGE_KEY_PREFIX = "catalog:page:";
+    private static final String GENERATION_KEY = "catalog:generation";
+    private static final String CHANNEL = "catalog:invalidations";
+    private static final String PRODUCTS_MESSAGE = "products:";
+    private static final String PAGES_MESSAGE = "pages:";
+    private static final String STOCK_MESSAGE = "stock:";
+    private static final String VERSION_SUFFIX = ":version";
+
+    private static final DefaultRedisScript<Long> WRITE_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '') ~= ARGV[1] then return 0 end "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1",
+            Long.class);
+    // keys come in (product, version) pairs
+    private static final DefaultRedisScript<Long> EVICT_PRODUCTS = new DefaultRedisScript<>(
+            "for i = 1, #KEYS, 2 do redis.call('del', KEYS[i]) redis.call('incr', KEYS[i + 1]) "
+                    + "redis.call('pexpire', KEYS[i + 1], ARGV[1]) end return 1",
+            Long.class);
+    // rewrites the entry only if nothing else changed it since it was read, and drops it otherwise;
+    // either way the version moves so a load that started earlier can't write back over it
+    private static final DefaultRedisScript<Long> UPDATE_PRODUCT = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '') == ARGV[1] then "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) else redis.call('del', KEYS[1]) end "
+                    + "redis.call('incr', KEYS[2]) return redis.call('pexpire', KEYS[2], ARGV[3])",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration productTtl;
+    private final Duration pageTtl;
+    private final JavaType productType;
+    private final JavaType pageType;
+
+    private final Cache<Long, Versioned<ProductResponse>> products;
+    private final Cache<String, Long> skus;
+    private final Cache<String, Versioned<PageResponse<ProductResponse>>> pages;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    // bumped before local product copies are dropped, see putLocal
+    private final AtomicLong localEvictions = new AtomicLong();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile long generation;
+
+    public ProductCache(StringRedisTemplate redisTemplate,
+                        RedisHealth redisHealth,
+                        ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager,
+                        RedisMessageListenerContainer listenerContainer,
+                        MeterRegistry meterRegistry,
+                        @Value("${catalog.cache.local-max-products:10000}") long localMaxProducts,
+                        @Value("${catalog.cache.local-max-pages:1000}") long localMaxPages,
+                        @Value("${catalog.cache.local-ttl:1m}") Duration localTtl,
+                        @Value("${catalog.cache.product-ttl:10m}") Duration productTtl,
+                        @Value("${catalog.cache.page-ttl:30s}") Duration pageTtl) {
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+        // null fields are left out to keep entries small
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.productTtl = productTtl;
+        this.pageTtl = pageTtl;
+        this.productType = this.objectMapper.constructType(ProductResponse.class);
+        this.pageType = this.objectMapper.getTypeFactory().constructParametricType(PageResponse.class, ProductResponse.class);
+
+        this.products = Caffeine.newBuilder()
+                .maximumSize(localMaxProducts)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        this.skus = Caffeine.newBuilder()
+                .maximumSize(localMaxProducts)
+                .expireAfterWrite(productTtl)
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(localMaxPages)
+                .expireAfterWrite(localTtl.compareTo(pageTtl) < 0 ? localTtl : pageTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "catalog.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "catalog.pages");
+        this.redisHits = Counter.builder("catalog.cache.redis").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("catalog.cache.redis").tag("result", "miss").register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadGeneration() {
+        String value = redisGet(GENERATION_KEY);
+        if (value != null) {
+            generation = Math.max(generation, Long.parseLong(value));
+        }
+    }
+
+    // loaders run in a read-only transaction of their own, so a cache hit never takes a connection
+    public Versioned<ProductResponse> getById(Long id, Supplier<ProductResponse> loader) {
+        long evictions = localEvictions.get();
+        ProductLookup lookup = cachedProduct(id, evictions);
+        if (lookup.cached() != null) {
+            return lookup.cached();
+        }
+        ProductResponse loaded = transactionTemplate.execute(status -> loader.get());
+        return storeProduct(loaded, lookup.version(), evictions);
+    }
+
+    // skus map to product ids, so a product is cached once and evicted by id. the mapping is
+    // checked against the cached product in case the sku has since moved
+    public Versioned<ProductResponse> getBySku(String sku, Supplier<ProductResponse> loader) {
+        long evictions = localEvictions.get();
+        Long id = skus.getIfPresent(sku);
+        if (id == null) {
+            String value = redisGet(SKU_KEY_PREFIX + sku);
+            id = value != null ? Long.valueOf(value) : null;
+        }
+        ProductLookup lookup = new ProductLookup(null, null);
+        if (id != null) {
+            lookup = cachedProduct(id, evictions);
+            Versioned<ProductResponse> cached = lookup.cached();
+            if (cached != null && sku.equals(cached.getBody().getSku())) {
+                skus.put(sku, id);
+                return cached;
+            }
+        }
+
+        ProductResponse loaded = transactionTemplate.execute(status -> loader.get());
+        // the version is only known for the product the sku pointed at; any other one is written
+        // back to redis by its next lookup by id
+        String version = loaded.getId().equals(id) ? lookup.version() : null;
+        Versioned<ProductResponse> stored = storeProduct(loaded, version, evictions);
+        skus.put(sku, loaded.getId());
+        redisSet(SKU_KEY_PREFIX + sku, loaded.getId().toString(), productTtl);
+        return stored;
+    }
+
+    // key identifies the listing and page (filters, page number, size, sort)
+    // pages carry no last-modified time: a product leaving the page changes it without any
+    // product on it being newer, so only the etag can tell
+    public Versioned<PageResponse<ProductResponse>> getPage(String key, Supplier<PageResponse<ProductResponse>> loader) {
+        String versionedKey = generation + ":" + key;
+
+        Versioned<PageResponse<ProductResponse>> cached = pages.getIfPresent(versionedKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String redisKey = PAGE_KEY_PREFIX + versionedKey;
+        cached = redisRead(redisKey, pageType, page -> -1);
+        if (cached == null) {
+            PageResponse<ProductResponse> loaded = transactionTemplate.execute(status -> loader.get());
+            cached = redisWrite(redisKey, loaded, pageTtl, page -> -1);
+        }
+        pages.put(versionedKey, cached);
+        return cached;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(Set.of(event.getProductId()), true);
+    }
+
+    public void evictStockAfterCommit(Collection<Long> productIds) {
+        Set<Long> ids = Set.copyOf(productIds);
+        afterCommit(() -> evict(ids, false));
+    }
+
+    // stock is read once the transaction has committed, so it reflects this change and any before it
+    public void updateStockAfterCommit(Collection<Long> productIds, ToIntFunction<Long> stock) {
+        Set<Long> ids = Set.copyOf(productIds);
+        afterCommit(() -> updateStock(ids, stock));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(PRODUCTS_MESSAGE)) {
+            List<Long> ids = Arrays.stream(body.substring(PRODUCTS_MESSAGE.length()).split(","))
+                    .map(Long::valueOf)
+                    .toList();
+            localEvictions.incrementAndGet();
+            products.invalidateAll(ids);
+        } else if (body.startsWith(PAGES_MESSAGE)) {
+            advanceGeneration(Long.parseLong(body.substring(PAGES_MESSAGE.length())));
+        } else if (body.startsWith(STOCK_MESSAGE)) {
+            // the sender has already updated its own copies; everyone else rereads them from redis
+            int separator = body.lastIndexOf(':');
+            if (body.substring(STOCK_MESSAGE.length(), separator).equals(instanceId)) {
+                return;
+            }
+            List<Long> ids = Arrays.stream(body.substring(separator + 1).split(","))
+                    .map(Long::valueOf)
+                    .toList();
+            localEvictions.incrementAndGet();
+            products.invalidateAll(ids);
+        }
+    }
+
+    private void updateStock(Set<Long> productIds, ToIntFunction<Long> stock) {
+        // a load racing this one may have read the old figure, the bump makes it drop its copy
+        localEvictions.incrementAndGet();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> figures = new HashMap<>();
+        for (Long id : productIds) {
+            // read inside the entry's lock, so concurrent updates of one product can't land out of order
+            products.asMap().computeIfPresent(id, (key, cached) -> {
+                int figure = stock.applyAsInt(key);
+                figures.put(key, figure);
+                return withStock(cached.getBody(), figure, now);
+            });
+        }
+
+        if (!redisHealth.available()) {
+            return;
+        }
+        try {
+            for (Long id : productIds) {
+                String key = PRODUCT_KEY_PREFIX + id;
+                List<String> values = redisTemplate.opsForValue().multiGet(List.of(key, key + VERSION_SUFFIX));
+                if (values == null || values.get(0) == null) {
+                    continue;
+                }
+                ProductResponse cached = objectMapper.readValue(values.get(0), productType);
+                // same figure and time as the local copy, so both carry the same etag
+                int figure = figures.computeIfAbsent(id, stock::applyAsInt);
+                String json = objectMapper.writeValueAsString(withStock(cached, figure, now).getBody());
+                redisTemplate.execute(UPDATE_PRODUCT, List.of(key, key + VERSION_SUFFIX),
+                        values.get(1) != null ? values.get(1) : "", json, String.valueOf(productTtl.toMillis()));
+            }
+            redisTemplate.convertAndSend(CHANNEL, STOCK_MESSAGE + instanceId + ":" +
+                    productIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        } catch (IOException e) {
+            log.warn("could not update cached stock for products {}", productIds, e);
+        }
+    }
+
+    // stock changes bump updated_at in the database as well, so the copy is marked modified too
+    private Versioned<ProductResponse> withStock(ProductResponse product, int stock, LocalDateTime modified) {
+        ProductResponse updated = product.toBuilder()
+                .stockQuantity(stock)
+                .updatedAt(modified)
+                .build();
+        String etag = null;
+        try {
+            etag = etag(objectMapper.writeValueAsString(updated));
+        } catch (IOException e) {
+            log.warn("could not compute etag for product {}", product.getId(), e);
+        }
+        return new Versioned<>(updated, etag, productModified(updated));
+    }
+
+    // redis copies go first so another instance can't refill its local cache from them, then the
+    // local copies here and, through the channel, everywhere else
+    private void evict(Set<Long> productIds, boolean catalogChanged) {
+        localEvictions.incrementAndGet();
+        products.invalidateAll(productIds);
+
+        if (redisHealth.available()) {
+            try {
+                List<String> keys = productIds.stream()
+                        .flatMap(id -> Stream.of(PRODUCT_KEY_PREFIX + id, PRODUCT_KEY_PREFIX + id + VERSION_SUFFIX))
+                        .toList();
+                // the version outlives any entry written against an older one
+                redisTemplate.execute(EVICT_PRODUCTS, keys, String.valueOf(productTtl.toMillis()));
+                redisTemplate.convertAndSend(CHANNEL, PRODUCTS_MESSAGE +
+                        productIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+                if (catalogChanged) {
+                    Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+                    advanceGeneration(next);
+                    redisTemplate.convertAndSend(CHANNEL, PAGES_MESSAGE + next);
+                }
+                return;
+            } catch (DataAccessException e) {
+                redisHealth.markDown();
+            }
+        }
+
+        // without redis only this instance's copies can be dropped; pages aren't read from redis
+        // meanwhile, so the generation is left alone to stay in step with the other instances
+        if (catalogChanged) {
+            pages.invalidateAll();
+        }
+    }
+
+    private void advanceGeneration(long next) {
+        synchronized (pages) {
+            if (next > generation) {
+                generation = next;
+                pages.invalidateAll();
+            }
+        }
+    }
+
+    // the cached product, or the redis version a freshly loaded one has to be written against. a
+    // null version means redis couldn't be read and the loaded product stays out of it
+    private ProductLookup cachedProduct(Long id, long evictions) {
+        Versioned<ProductResponse> cached = products.getIfPresent(id);
+        if (cached != null) {
+            return new ProductLookup(cached, null);
+        }
+
+        String key = PRODUCT_KEY_PREFIX + id;
+        List<String> values = redisMultiGet(List.of(key, key + VERSION_SUFFIX));
+        if (values == null) {
+            return new ProductLookup(null, null);
+        }
+        cached = parse(key, values.get(0), productType, ProductCache::productModified);
+        if (cached != null) {
+            putLocal(id, cached, evictions);
+            return new ProductLookup(cached, null);
+        }
+        return new ProductLookup(null, values.get(1) != null ? values.get(1) : "");
+    }
+
+    private Versioned<ProductResponse> storeProduct(ProductResponse product, String version, long evictions) {
+        String key = PRODUCT_KEY_PREFIX + product.getId();
+        String etag = null;
+        try {
+            String json = objectMapper.writeValueAsString(product);
+            etag = etag(json);
+            if (version != null && redisHealth.available()) {
+                redisTemplate.execute(WRITE_IF_UNCHANGED, List.of(key, key + VERSION_SUFFIX),
+                        version, json, String.valueOf(productTtl.toMillis()));
+            }
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        } catch (IOException e) {
+            log.warn("could not cache catalog entry {}", key, e);
+        }
+
+        Versioned<ProductResponse> stored = new Versioned<>(product, etag, productModified(product));
+        putLocal(product.getId(), stored, evictions);
+        return stored;
+    }
+
+    // evict bumps the counter before dropping copies, so a put that raced an eviction either
+    // happened before the drop or sees the counter moved and undoes itself
+    private void putLocal(Long id, Versioned<ProductResponse> product, long evictions) {
+        products.put(id, product);
+        if (localEvictions.get() != evictions) {
+            products.invalidate(id);
+        }
+    }
+
+    private <T> Versioned<T> redisRead(String key, JavaType type, ToLongFunction<T> lastModified) {
+        return parse(key, redisGet(key), type, lastModified);
+    }
+
+    // an unreadable entry is treated as a miss and replaced by the next write
+    private <T> Versioned<T> parse(String key, String value, JavaType type, ToLongFunction<T> lastModified) {
+        if (value == null) {
+            redisMisses.increment();
+            return null;
+        }
+        try {
+            T cached = objectMapper.readValue(value, type);
+            redisHits.increment();
+            return new Versioned<>(cached, etag(value), lastModified.applyAsLong(cached));
+        } catch (IOException e) {
+            log.warn("ignoring unreadable cached catalog entry {}", key, e);
+            return null;
+        }
+    }
+
+    // the etag is a hash of the json kept in redis, so it is worked out once per entry rather than
+    // per request, and every instance serving the same entry sends the same one
+    private <T> Versioned<T> redisWrite(String key, T value, Duration ttl, ToLongFunction<T> lastModified) {
+        String etag = null;
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            etag = etag(json);
+            redisSet(key, json, ttl);
+        } catch (IOException e) {
+            log.warn("could not cache catalog entry {}", key, e);
+        }
+        return new Versioned<>(value, etag, lastModified.applyAsLong(value));
+    }
+
+    private static String etag(String json) {
+        return "\"" + DigestUtils.md5DigestAsHex(json.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // stock updates bump updated_at too, so it changes whenever anything in the response does
+    private static long productModified(ProductResponse product) {
+        LocalDateTime modified = product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+        return modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String redisGet(String key) {
+        if (!redisHealth.available()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+            return null;
+        }
+    }
+
+    private List<String> redisMultiGet(List<String> keys) {
+        if (!redisHealth.available()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().multiGet(keys);
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+            return null;
+        }
+    }
+
+    private void redisSet(String key, String value, Duration ttl) {
+        if (!redisHealth.available()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } catch (DataAccessException e) {
+            redisHealth.markDown();
+        }
+    }
+
+    private record ProductLookup(Versioned<ProductResponse> cached, String version) {
+    }
+}
@@ -0,0 +1,331 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.domain.event.ProductChangedEvent;
+import com.ordermanagement.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// in-memory search over active products (catalog.search.engine=memory). every product is a
+// numbered document; each word maps to a sorted int array of document numbers and each category
+// to a bitset, so a query is a few array walks and bitset ands. committed product changes are
+// applied one product at a time: the product gets a new document and the old one is marked dead.
+// changed product ids are broadcast on a redis channel so other instances apply them too; the
+// periodic reload drops dead documents and catches up on anything missed while redis was down.
+// postgres is only used to load the page of products that is returned
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "memory")
+public class ProductSearchIndex implements MessageListener {
+
+    private static final String CHANNEL = "catalog:search-changes";
+
+    // words shorter than this only match exactly, longer ones also match as a prefix
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final int NAME_EXACT = 8;
+    private static final int NAME_PREFIX = 4;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    private static final int SCORE_SHIFT = 48;
+    private static final long PRODUCT_ID_MASK = (1L << SCORE_SHIFT) - 1;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    // tags this instance's broadcasts so it doesn't apply its own changes twice
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // products changed while a reload was reading the catalog, applied again once it is swapped in
+    private final Set<Long> changedDuringReload = ConcurrentHashMap.newKeySet();
+    private Index index = new Index();
+    private volatile boolean reloading;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager,
+                              StringRedisTemplate redisTemplate,
+                              RedisHealth redisHealth,
+                              RedisMessageListenerContainer listenerContainer) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.search.reload-interval-ms:600000}",
+            initialDelayString = "${catalog.search.reload-interval-ms:600000}")
+    public synchronized void reload() {
+        reloading = true;
+        try {
+            Index rebuilt = new Index();
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.findAllActiveWithCategory().forEach(rebuilt::add));
+
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+                log.debug("product search index loaded with {} products", rebuilt.documentByProduct.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            reloading = false;
+        }
+
+        for (Long productId : List.copyOf(changedDuringReload)) {
+            changedDuringReload.remove(productId);
+            apply(productId);
+        }
+
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed(event.getProductId());
+
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + event.getProductId());
+            } catch (DataAccessException e) {
+                log.warn("could not broadcast product {} change, other instances pick it up on reload",
+                        event.getProductId(), e);
+                redisHealth.markDown();
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        changed(Long.valueOf(body.substring(separator + 1)));
+    }
+
+    // product ids for one page of results, best match first. results are ranked by where the
+    // words matched (name and sku above description, whole words above prefixes), then by id
+    public Result search(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, long offset, int limit) {
+        String[] words = ProductTokenizer.tokenize(query);
+        if (words.length == 0) {
+            return new Result(List.of(), 0);
+        }
+        long minCents = minPrice != null ? toCents(minPrice) : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? toCents(maxPrice) : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            Index current = index;
+
+            BitSet matches = (BitSet) current.live.clone();
+            if (categoryId != null) {
+                matches.and(current.categories.getOrDefault(categoryId, new BitSet()));
+            }
+            for (String word : words) {
+                if (matches.isEmpty()) {
+                    break;
+                }
+                matches.and(current.matching(word));
+            }
+
+            long[] ranked = new long[matches.cardinality()];
+            int count = 0;
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                Document document = current.documents[doc];
+                if (document.priceCents < minCents || document.priceCents > maxCents) {
+                    continue;
+                }
+                int score = Math.min(document.score(words), (1 << (Long.SIZE - SCORE_SHIFT - 1)) - 1);
+                // lower sorts first, so the score is stored inverted
+                ranked[count++] = ((long) -score << SCORE_SHIFT) | document.productId;
+            }
+            Arrays.sort(ranked, 0, count);
+
+            int from = (int) Math.min(offset, count);
+            int to = (int) Math.min((long) from + limit, count);
+            List<Long> productIds = Arrays.stream(ranked, from, to)
+                    .map(key -> key & PRODUCT_ID_MASK)
+                    .boxed()
+                    .toList();
+            return new Result(productIds, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void changed(Long productId) {
+        if (reloading) {
+            changedDuringReload.add(productId);
+        }
+        apply(productId);
+    }
+
+    private void apply(Long productId) {
+        Product product = transactionTemplate.execute(status ->
+                productRepository.findWithCategoryById(productId).orElse(null));
+
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            if (product != null && product.isActive()) {
+                index.add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public record Result(List<Long> productIds, long total) {
+    }
+
+    private static final class Index {
+
+        // name and sku words, and description words, each mapped to the documents containing them
+        private final TreeMap<String, Postings> nameWords = new TreeMap<>();
+        private final TreeMap<String, Postings> descriptionWords = new TreeMap<>();
+        private final Map<Long, BitSet> categories = new HashMap<>();
+        private final Map<Long, Integer> documentByProduct = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private Document[] documents = new Document[1024];
+        private int documentCount;
+
+        void add(Product product) {
+            String[] name = concat(ProductTokenizer.tokenize(product.getName()), ProductTokenizer.tokenize(product.getSku()));
+            String[] description = ProductTokenizer.tokenize(product.getDescription());
+
+            int doc = documentCount++;
+            if (doc == documents.length) {
+                documents = Arrays.copyOf(documents, doc * 2);
+            }
+            documents[doc] = new Document(product.getId(), toCents(product.getPrice()), name, description);
+
+            // documents are numbered in insertion order, so appending keeps every postings list sorted
+            for (String word : name) {
+                nameWords.computeIfAbsent(word, w -> new Postings()).add(doc);
+            }
+            for (String word : description) {
+                descriptionWords.computeIfAbsent(word, w -> new Postings()).add(doc);
+            }
+            categories.computeIfAbsent(product.getCategory().getId(), id -> new BitSet()).set(doc);
+            documentByProduct.put(product.getId(), doc);
+            live.set(doc);
+        }
+
+        // dead documents stay in the postings until the next reload; the live bitset hides them
+        void remove(Long productId) {
+            Integer doc = documentByProduct.remove(productId);
+            if (doc != null) {
+                live.clear(doc);
+            }
+        }
+
+        BitSet matching(String word) {
+            BitSet docs = new BitSet(documentCount);
+            collect(nameWords, word, docs);
+            collect(descriptionWords, word, docs);
+            return docs;
+        }
+
+        private static void collect(TreeMap<String, Postings> words, String word, BitSet docs) {
+            NavigableMap<String, Postings> matches = word.length() >= MIN_PREFIX_LENGTH
+                    ? words.subMap(word, true, word + Character.MAX_VALUE, false)
+                    : words.subMap(word, true, word, true);
+            for (Postings postings : matches.values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    docs.set(postings.docs[i]);
+                }
+            }
+        }
+
+        private static String[] concat(String[] first, String[] second) {
+            String[] words = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, words, first.length, second.length);
+            return words;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    private record Document(long productId, long priceCents, String[] nameWords, String[] descriptionWords) {
+
+        int score(String[] queryWords) {
+            int score = 0;
+            for (String word : queryWords) {
+                score += Math.max(
+                        best(nameWords, word, NAME_EXACT, NAME_PREFIX),
+                        best(descriptionWords, word, DESCRIPTION_EXACT, DESCRIPTION_PREFIX));
+            }
+            return score;
+        }
+
+        private static int best(String[] words, String word, int exact, int prefix) {
+            int best = 0;
+            for (String candidate : words) {
+                if (candidate.equals(word)) {
+                    return exact;
+                }
+                if (word.length() >= MIN_PREFIX_LENGTH && candidate.startsWith(word)) {
+                    best = prefix;
+                }
+            }
+            return best;
+        }
+    }
+}
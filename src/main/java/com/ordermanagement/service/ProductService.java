@@ -2,21 +2,38 @@ package com.ordermanagement.service;
 
 import com.ordermanagement.domain.entity.Category;
 import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.domain.event.ProductChangedEvent;
+import com.ordermanagement.dto.common.Cursor;
+import com.ordermanagement.dto.common.CursorPageResponse;
 import com.ordermanagement.dto.common.PageResponse;
+import com.ordermanagement.dto.common.Versioned;
 import com.ordermanagement.dto.product.CreateProductRequest;
 import com.ordermanagement.dto.product.ProductResponse;
+import com.ordermanagement.dto.product.ProductSuggestionResponse;
 import com.ordermanagement.dto.product.UpdateProductRequest;
 import com.ordermanagement.exception.DuplicateResourceException;
 import com.ordermanagement.exception.InsufficientStockException;
 import com.ordermanagement.exception.ResourceNotFoundException;
 import com.ordermanagement.repository.ProductRepository;
+import com.ordermanagement.repository.ProductStockRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,7 +41,13 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
     private final CategoryService categoryService;
+    private final Optional<InventoryLedger> inventoryLedger;
+    private final Optional<ProductSearchIndex> searchIndex;
+    private final ProductSuggester productSuggester;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductResponse create(CreateProductRequest request) {
@@ -41,47 +64,104 @@ public class ProductService {
                 .stockQuantity(request.getStockQuantity())
                 .sku(request.getSku())
                 .imageUrl(request.getImageUrl())
+                .weightGrams(request.getWeightGrams())
+                .volumeCm3(request.getVolumeCm3())
                 .category(category)
                 .active(true)
                 .build();
 
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
 
         return ProductResponse.fromEntity(product);
     }
 
-    @Transactional(readOnly = true)
-    public ProductResponse findById(Long id) {
-        Product product = getEntityById(id);
-        return ProductResponse.fromEntity(product);
+    // catalog reads below go through ProductCache, which opens its own transaction on a miss and
+    // returns the etag of the cached entry with it
+    public Versioned<ProductResponse> findById(Long id) {
+        return productCache.getById(id, () -> withAvailableStock(ProductResponse.fromEntity(getEntityById(id))));
     }
 
-    @Transactional(readOnly = true)
-    public ProductResponse findBySku(String sku) {
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "sku", sku));
-        return ProductResponse.fromEntity(product);
+    public Versioned<ProductResponse> findBySku(String sku) {
+        return productCache.getBySku(sku, () -> productRepository.findBySku(sku)
+                .map(ProductResponse::fromEntity)
+                .map(this::withAvailableStock)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "sku", sku)));
     }
 
-    @Transactional(readOnly = true)
-    public PageResponse<ProductResponse> findAllActive(Pageable pageable) {
-        Page<ProductResponse> page = productRepository.findByActiveTrue(pageable)
-                .map(ProductResponse::fromEntity);
-        return PageResponse.from(page);
+    public Versioned<PageResponse<ProductResponse>> findAllActive(Pageable pageable) {
+        return productCache.getPage("active:" + pageKey(pageable), () -> PageResponse.from(
+                productRepository.findByActiveTrue(pageable).map(ProductResponse::fromEntity)));
     }
 
     @Transactional(readOnly = true)
-    public PageResponse<ProductResponse> findByCategory(Long categoryId, Pageable pageable) {
-        Page<ProductResponse> page = productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable)
-                .map(ProductResponse::fromEntity);
-        return PageResponse.from(page);
+    public CursorPageResponse<ProductResponse> findAllActive(String cursor, int size) {
+        size = Math.clamp(size, 1, CursorPageResponse.MAX_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+        Cursor after = cursor != null ? Cursor.decode(cursor) : null;
+
+        List<Product> products = after == null
+                ? productRepository.findFirstActive(limit)
+                : productRepository.findActiveAfter(after.getKey(), after.getId(), limit);
+
+        return CursorPageResponse.from(products, size,
+                product -> Cursor.encode(product.getName(), product.getId()), ProductResponse::fromEntity);
+    }
+
+    public Versioned<PageResponse<ProductResponse>> findByCategory(Long categoryId, Pageable pageable) {
+        return productCache.getPage("category:" + categoryId + ":" + pageKey(pageable), () -> PageResponse.from(
+                productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable).map(ProductResponse::fromEntity)));
     }
 
+    // relevance-ranked search; any sort on the pageable is ignored. served from the in-memory index
+    // when catalog.search.engine=memory and it has loaded, otherwise from the postgres full-text index
     @Transactional(readOnly = true)
-    public PageResponse<ProductResponse> search(String searchTerm, Pageable pageable) {
-        Page<ProductResponse> page = productRepository.searchByName(searchTerm, pageable)
-                .map(ProductResponse::fromEntity);
-        return PageResponse.from(page);
+    public PageResponse<ProductResponse> search(String searchTerm, Long categoryId, BigDecimal minPrice,
+                                                BigDecimal maxPrice, Pageable pageable) {
+        String query = searchTerm.trim();
+        if (query.isEmpty()) {
+            return PageResponse.from(Page.empty(pageable));
+        }
+
+        List<Long> ids;
+        long total;
+        if (searchIndex.isPresent() && searchIndex.get().isReady()) {
+            ProductSearchIndex.Result result = searchIndex.get()
+                    .search(query, categoryId, minPrice, maxPrice, pageable.getOffset(), pageable.getPageSize());
+            ids = result.productIds();
+            total = result.total();
+        } else {
+            boolean fuzzy = false;
+            total = productRepository.countSearch(query, categoryId, minPrice, maxPrice);
+            if (total == 0) {
+                fuzzy = true;
+                total = productRepository.countSimilar(query, categoryId, minPrice, maxPrice);
+            }
+
+            ids = List.of();
+            if (total > pageable.getOffset()) {
+                ids = fuzzy
+                        ? productRepository.searchSimilarIds(query, categoryId, minPrice, maxPrice,
+                                pageable.getPageSize(), pageable.getOffset())
+                        : productRepository.searchIds(query, categoryId, minPrice, maxPrice,
+                                pageable.getPageSize(), pageable.getOffset());
+            }
+        }
+
+        // a product deactivated since the ids were picked is dropped rather than shown
+        Map<Long, Product> products = productRepository.findAllActiveWithCategoryByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        List<ProductResponse> content = ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(ProductResponse::fromEntity)
+                .toList();
+
+        return PageResponse.from(new PageImpl<>(content, pageable, total));
+    }
+
+    public List<ProductSuggestionResponse> suggest(String prefix, int limit) {
+        return productSuggester.suggest(prefix, limit);
     }
 
     @Transactional
@@ -98,11 +178,18 @@ public class ProductService {
             product.setPrice(request.getPrice());
         }
         if (request.getStockQuantity() != null) {
+            inventoryLedger.ifPresent(ledger -> ledger.setStockAfterCommit(id, request.getStockQuantity()));
             product.setStockQuantity(request.getStockQuantity());
         }
         if (request.getImageUrl() != null) {
             product.setImageUrl(request.getImageUrl());
         }
+        if (request.getWeightGrams() != null) {
+            product.setWeightGrams(request.getWeightGrams());
+        }
+        if (request.getVolumeCm3() != null) {
+            product.setVolumeCm3(request.getVolumeCm3());
+        }
         if (request.getCategoryId() != null) {
             Category category = categoryService.getEntityById(request.getCategoryId());
             product.setCategory(category);
@@ -112,6 +199,7 @@ public class ProductService {
         }
 
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
 
         return ProductResponse.fromEntity(product);
     }
@@ -121,25 +209,51 @@ public class ProductService {
         Product product = getEntityById(id);
         product.setActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
     }
 
     @Transactional
     public void decreaseStock(Long productId, int quantity) {
-        Product product = getEntityById(productId);
+        decreaseStock(Map.of(productId, quantity));
+    }
+
+    @Transactional
+    public void decreaseStock(Map<Long, Integer> quantities) {
+        Set<Long> rejected = tryDecreaseStock(quantities);
 
-        if (!product.hasStock(quantity)) {
-            throw new InsufficientStockException(productId, quantity, product.getStockQuantity());
+        if (!rejected.isEmpty()) {
+            throw insufficientStock(quantities, rejected);
         }
+    }
 
-        product.decreaseStock(quantity);
-        productRepository.save(product);
+    // applies every decrement that fits and returns the products that didn't, so callers
+    // can decide between failing the whole transaction or rejecting individual items
+    @Transactional
+    public Set<Long> tryDecreaseStock(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+
+        Set<Long> rejected = inventoryLedger.isPresent()
+                ? inventoryLedger.get().tryReserve(sorted)
+                : productStockRepository.decreaseAll(sorted);
+        stockChangedAfterCommit(sorted.keySet());
+        return rejected;
     }
 
     @Transactional
     public void increaseStock(Long productId, int quantity) {
-        Product product = getEntityById(productId);
-        product.increaseStock(quantity);
-        productRepository.save(product);
+        increaseStock(Map.of(productId, quantity));
+    }
+
+    @Transactional
+    public void increaseStock(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+
+        if (inventoryLedger.isPresent()) {
+            inventoryLedger.get().release(sorted);
+        } else {
+            productStockRepository.increaseAll(sorted);
+        }
+        stockChangedAfterCommit(sorted.keySet());
     }
 
     @Transactional(readOnly = true)
@@ -149,9 +263,64 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public Map<Long, Product> findEntitiesByIds(Collection<Long> ids) {
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Product> getEntitiesByIds(Collection<Long> ids) {
+        Map<Long, Product> products = findEntitiesByIds(ids);
+
+        for (Long id : ids) {
+            if (!products.containsKey(id)) {
+                throw new ResourceNotFoundException("Product", id);
+            }
+        }
+
+        return products;
+    }
+
     @Transactional(readOnly = true)
     public Product getEntityById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
     }
+
+    // with the ledger on, products.stock_quantity trails checkout by up to a flush interval, so
+    // product details carry the ledger's figure instead
+    private ProductResponse withAvailableStock(ProductResponse product) {
+        inventoryLedger.ifPresent(ledger -> product.setStockQuantity(ledger.getAvailable(product.getId())));
+        return product;
+    }
+
+    // registered after the ledger's own hooks, so the figure read after commit already includes
+    // this change. without the ledger the database is current and the copies are just dropped
+    private void stockChangedAfterCommit(Set<Long> productIds) {
+        if (inventoryLedger.isPresent()) {
+            productCache.updateStockAfterCommit(productIds, inventoryLedger.get()::getAvailable);
+        } else {
+            productCache.evictStockAfterCommit(productIds);
+        }
+    }
+
+    private static String pageKey(Pageable pageable) {
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
+
+    private InsufficientStockException insufficientStock(Map<Long, Integer> requested, Set<Long> rejected) {
+        Map<Long, Integer> available = inventoryLedger.isPresent()
+                ? rejected.stream().collect(Collectors.toMap(id -> id, id -> inventoryLedger.get().getAvailable(id)))
+                : productStockRepository.findStockQuantities(rejected);
+
+        List<InsufficientStockException.Shortage> shortages = rejected.stream()
+                .map(id -> new InsufficientStockException.Shortage(id, requested.get(id), available.getOrDefault(id, 0)))
+                .collect(Collectors.toList());
+
+        return new InsufficientStockException(shortages);
+    }
 }
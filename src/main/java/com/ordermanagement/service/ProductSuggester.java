@@ -0,0 +1,410 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.domain.event.ProductChangedEvent;
+import com.ordermanagement.dto.product.ProductSuggestionResponse;
+import com.ordermanagement.repository.OrderItemRepository;
+import com.ordermanagement.repository.ProductRepository;
+import com.ordermanagement.repository.projection.ProductLabel;
+import com.ordermanagement.repository.projection.ProductSales;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// autocomplete for the storefront search box. product names (from every word on, so "max" finds
+// "Nike Air Max") and skus are kept in a trie where each node stores the best-selling products
+// below it, so a lookup is one walk down the prefix and never touches the database. a product
+// change only recomputes the nodes on that product's paths, and the changed id is broadcast on a
+// redis channel so other instances recompute theirs too; sales figures, and anything missed while
+// redis was down, are picked up by the periodic reload
+@Slf4j
+@Component
+public class ProductSuggester implements MessageListener {
+
+    private static final String CHANNEL = "catalog:suggest-changes";
+
+    // keys are cut at this length to bound the trie; longer prefixes are checked against the full key
+    private static final int MAX_KEY_LENGTH = 24;
+    // only the first few words of a name start a key of their own
+    private static final int MAX_WORD_KEYS = 8;
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::name)
+            .thenComparingLong(Entry::id);
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHealth redisHealth;
+    private final int topK;
+    // tags this instance's broadcasts so it doesn't apply its own changes twice
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // products changed while a reload was reading the catalog, applied again once it is swapped in
+    private final Set<Long> changedDuringReload = ConcurrentHashMap.newKeySet();
+    private Node root = new Node();
+    private Map<Long, Entry> entries = new HashMap<>();
+    private volatile boolean reloading;
+
+    public ProductSuggester(ProductRepository productRepository,
+                            OrderItemRepository orderItemRepository,
+                            PlatformTransactionManager transactionManager,
+                            StringRedisTemplate redisTemplate,
+                            RedisHealth redisHealth,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${catalog.suggest.max-results:10}") int topK) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.redisHealth = redisHealth;
+        this.topK = topK;
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.suggest.reload-interval-ms:3600000}",
+            initialDelayString = "${catalog.suggest.reload-interval-ms:3600000}")
+    public synchronized void reload() {
+        reloading = true;
+        try {
+            Map<Long, Entry> loaded = new HashMap<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Long> sales = new HashMap<>();
+                for (ProductSales row : orderItemRepository.sumQuantityByProduct()) {
+                    sales.put(row.getProductId(), row.getQuantity());
+                }
+                for (ProductLabel label : productRepository.findActiveLabels()) {
+                    Entry entry = Entry.of(label.getId(), label.getName(), label.getSku(),
+                            sales.getOrDefault(label.getId(), 0L));
+                    loaded.put(entry.id(), entry);
+                }
+            });
+
+            // bulk load: place every key first, then fill in the per-node rankings in one pass
+            Node rebuilt = new Node();
+            for (Entry entry : loaded.values()) {
+                for (String key : entry.keys()) {
+                    Node node = rebuilt.descend(cut(key), true);
+                    node.terminals = append(node.terminals, entry);
+                }
+            }
+            rankSubtree(rebuilt);
+
+            lock.writeLock().lock();
+            try {
+                root = rebuilt;
+                entries = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("product suggestions loaded for {} products", loaded.size());
+        } finally {
+            reloading = false;
+        }
+
+        for (Long productId : List.copyOf(changedDuringReload)) {
+            changedDuringReload.remove(productId);
+            apply(productId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changed(event.getProductId());
+
+        if (redisHealth.available()) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + event.getProductId());
+            } catch (DataAccessException e) {
+                log.warn("could not broadcast product {} change, other instances pick it up on reload",
+                        event.getProductId(), e);
+                redisHealth.markDown();
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        changed(Long.valueOf(body.substring(separator + 1)));
+    }
+
+    private void changed(Long productId) {
+        if (reloading) {
+            changedDuringReload.add(productId);
+        }
+        apply(productId);
+    }
+
+    public List<ProductSuggestionResponse> suggest(String prefix, int limit) {
+        String key = String.join(" ", ProductTokenizer.words(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        limit = Math.clamp(limit, 1, topK);
+        boolean cut = key.length() > MAX_KEY_LENGTH;
+
+        lock.readLock().lock();
+        try {
+            Node node = root.find(cut(key));
+            if (node == null) {
+                return List.of();
+            }
+
+            List<ProductSuggestionResponse> suggestions = new ArrayList<>(limit);
+            for (Entry entry : node.top) {
+                if (cut && !entry.startsWith(key)) {
+                    continue;
+                }
+                suggestions.add(entry.toResponse());
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Long productId) {
+        Entry updated = transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(productId).orElse(null);
+            if (product == null || !product.isActive()) {
+                return null;
+            }
+            Entry existing = currentEntry(productId);
+            long weight = existing != null
+                    ? existing.weight()
+                    : orderItemRepository.getTotalQuantitySoldByProduct(productId);
+            return Entry.of(product.getId(), product.getName(), product.getSku(), weight);
+        });
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = updated != null ? entries.put(productId, updated) : entries.remove(productId);
+            if (previous != null) {
+                for (String key : previous.keys()) {
+                    remove(cut(key), previous);
+                }
+            }
+            if (updated != null) {
+                for (String key : updated.keys()) {
+                    insert(cut(key), updated);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry currentEntry(Long productId) {
+        lock.readLock().lock();
+        try {
+            return entries.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(String key, Entry entry) {
+        Node[] path = path(key, true);
+        Node last = path[key.length()];
+        last.terminals = append(last.terminals, entry);
+        rankPath(path, key);
+    }
+
+    private void remove(String key, Entry entry) {
+        Node[] path = path(key, false);
+        Node last = path[key.length()];
+        if (last == null) {
+            return;
+        }
+        last.terminals = Arrays.stream(last.terminals).filter(existing -> existing != entry).toArray(Entry[]::new);
+        rankPath(path, key);
+    }
+
+    // nodes from the root down to the end of key; missing nodes are created or left null
+    private Node[] path(String key, boolean create) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length() && path[i] != null; i++) {
+            path[i + 1] = create ? path[i].childOrCreate(key.charAt(i)) : path[i].child(key.charAt(i));
+        }
+        return path;
+    }
+
+    // re-ranks the nodes on one path bottom-up, pruning nodes left with nothing below them
+    private void rankPath(Node[] path, String key) {
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            rank(node);
+            if (i > 0 && node.top.length == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        for (Node child : node.children) {
+            rankSubtree(child);
+        }
+        rank(node);
+    }
+
+    private void rank(Node node) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        // a product can reach a node through more than one key
+        node.top = candidates.stream()
+                .distinct()
+                .sorted(BEST_FIRST)
+                .limit(topK)
+                .toArray(Entry[]::new);
+    }
+
+    private static String cut(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] appended = Arrays.copyOf(entries, entries.length + 1);
+        appended[entries.length] = entry;
+        return appended;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        // children kept in two parallel arrays sorted by label, far smaller than a map per node
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        // products whose key ends here, and the best products anywhere below, best first
+        private Entry[] terminals = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        Node child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node child = new Node();
+
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newLabels[at] = label;
+            newChildren[at] = child;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        Node descend(String key, boolean create) {
+            Node node = this;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = create ? node.childOrCreate(key.charAt(i)) : node.child(key.charAt(i));
+            }
+            return node;
+        }
+
+        Node find(String key) {
+            return descend(key, false);
+        }
+    }
+
+    private record Entry(long id, String name, String sku, long weight, String[] keys) {
+
+        static Entry of(Long id, String name, String sku, long weight) {
+            List<String> keys = new ArrayList<>();
+            String[] words = ProductTokenizer.words(name);
+            for (int i = 0; i < Math.min(words.length, MAX_WORD_KEYS); i++) {
+                keys.add(String.join(" ", Arrays.copyOfRange(words, i, words.length)));
+            }
+            if (sku != null && !sku.isBlank()) {
+                keys.add(String.join(" ", ProductTokenizer.words(sku)));
+            }
+            return new Entry(id, name, sku, weight, keys.stream().filter(key -> !key.isEmpty()).distinct().toArray(String[]::new));
+        }
+
+        boolean startsWith(String prefix) {
+            for (String key : keys) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        ProductSuggestionResponse toResponse() {
+            return ProductSuggestionResponse.builder()
+                    .id(id)
+                    .name(name)
+                    .sku(sku)
+                    .build();
+        }
+    }
+}
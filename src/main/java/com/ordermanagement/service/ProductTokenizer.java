@@ -0,0 +1,38 @@
+package com.ordermanagement.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// splits product text into lowercase, accent-free words so "Cafe" finds "Café". shared by the
+// in-memory search index and the autocomplete so both agree on what a word is
+final class ProductTokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private ProductTokenizer() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // every word in order, repeats included
+    static String[] words(String text) {
+        return Arrays.stream(SEPARATORS.split(normalize(text)))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    static String[] tokenize(String text) {
+        return Arrays.stream(words(text))
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ordermanagement.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+// the original date + random suffix scheme, kept for single-node setups that want it
+@Component
+@ConditionalOnProperty(name = "orders.number.strategy", havingValue = "random")
+public class RandomOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Override
+    public String next() {
+        String datePart = LocalDate.now().format(DATE_FORMAT);
+        String uniquePart = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
+        return "ORD-" + datePart + "-" + uniquePart;
+    }
+}
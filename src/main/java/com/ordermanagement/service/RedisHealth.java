@@ -0,0 +1,24 @@
+package com.ordermanagement.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// shared by every component that falls back to local state when redis is unreachable. after a
+// failure redis is skipped for a while instead of paying the connect timeout on every call, and
+// since they all talk to the same server one failure is enough to back them all off
+@Component
+public class RedisHealth {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private volatile long retryAt;
+
+    public boolean available() {
+        return System.currentTimeMillis() >= retryAt;
+    }
+
+    public void markDown() {
+        retryAt = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.OrderItem;
+import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.domain.entity.ShippingRate;
+import com.ordermanagement.exception.BusinessException;
+import com.ordermanagement.repository.ShippingRateRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// prices shipping from the destination cep and the package weight. rates are loaded from
+// shipping_rates into one sorted int array per prefix length, so a quote is a handful of binary
+// searches over primitives with no allocation and no database access. the table is swapped
+// atomically when rates change, here or on another instance
+@Slf4j
+@Component
+public class ShippingRateEngine {
+
+    private static final int ZIP_DIGITS = 8;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    // carriers bill the larger of actual and volumetric weight, volumetric being cm3 / 6000 kg
+    private static final int GRAMS_PER_CM3_DIVISOR = 6;
+
+    private final ShippingRateRepository shippingRateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile RateTable table = RateTable.EMPTY;
+
+    public ShippingRateEngine(ShippingRateRepository shippingRateRepository, PlatformTransactionManager transactionManager) {
+        this.shippingRateRepository = shippingRateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // loaded during startup rather than on ready, since an empty table fails every quote
+    @PostConstruct
+    public synchronized void reload() {
+        table = transactionTemplate.execute(status -> RateTable.build(
+                shippingRateRepository.findByActiveTrue(),
+                new Version(shippingRateRepository.count(), shippingRateRepository.findLastModified())));
+        log.info("loaded {} shipping rates", table.size);
+    }
+
+    // picks up changes made through other instances or straight in the database
+    @Scheduled(fixedDelayString = "${shipping.rates.check-interval-ms:30000}", initialDelayString = "${shipping.rates.check-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Version current = transactionTemplate.execute(status ->
+                new Version(shippingRateRepository.count(), shippingRateRepository.findLastModified()));
+        if (!current.equals(table.version)) {
+            reload();
+        }
+    }
+
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    public BigDecimal quote(String zipCode, List<OrderItem> items) {
+        long weightGrams = 0;
+        long volumeCm3 = 0;
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            if (product.getWeightGrams() != null) {
+                weightGrams += (long) product.getWeightGrams() * item.getQuantity();
+            }
+            if (product.getVolumeCm3() != null) {
+                volumeCm3 += (long) product.getVolumeCm3() * item.getQuantity();
+            }
+        }
+        return BigDecimal.valueOf(quoteCents(zipCode, weightGrams, volumeCm3), 2);
+    }
+
+    public long quoteCents(String zipCode, long weightGrams, long volumeCm3) {
+        RateTable current = table;
+        int zip = parseZip(zipCode);
+
+        // without a usable cep only the fallback rate (empty prefix) can apply
+        for (int length = zip < 0 ? 0 : ZIP_DIGITS; length >= 0; length--) {
+            int[] prefixes = current.prefixes[length];
+            if (prefixes.length == 0) {
+                continue;
+            }
+            int index = Arrays.binarySearch(prefixes, zip < 0 ? 0 : zip / POWERS_OF_TEN[ZIP_DIGITS - length]);
+            if (index >= 0) {
+                long billableGrams = Math.max(weightGrams, (volumeCm3 + GRAMS_PER_CM3_DIVISOR - 1) / GRAMS_PER_CM3_DIVISOR);
+                long billableKg = (billableGrams + 999) / 1000;
+                return current.baseCents[length][index] + billableKg * current.perKgCents[length][index];
+            }
+        }
+
+        throw new BusinessException("shipping is not available for zip code " + zipCode);
+    }
+
+    // "01310-100" or "01310100" -> 1310100, anything that isn't 8 digits -> -1
+    private static int parseZip(String zipCode) {
+        if (zipCode == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < zipCode.length(); i++) {
+            char c = zipCode.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > ZIP_DIGITS) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c != '-' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return digits == ZIP_DIGITS ? value : -1;
+    }
+
+    private record Version(long count, LocalDateTime lastModified) {
+    }
+
+    private static final class RateTable {
+
+        static final RateTable EMPTY = build(List.of(), new Version(0, null));
+
+        // indexed by prefix length; prefixes[n] holds the n-digit prefixes as ints, sorted,
+        // with the matching costs in cents at the same positions
+        private final int[][] prefixes = new int[ZIP_DIGITS + 1][];
+        private final long[][] baseCents = new long[ZIP_DIGITS + 1][];
+        private final long[][] perKgCents = new long[ZIP_DIGITS + 1][];
+        private final Version version;
+        private final int size;
+
+        private RateTable(Version version, int size) {
+            this.version = version;
+            this.size = size;
+        }
+
+        static RateTable build(List<ShippingRate> rates, Version version) {
+            RateTable table = new RateTable(version, rates.size());
+            for (int length = 0; length <= ZIP_DIGITS; length++) {
+                int prefixLength = length;
+                ShippingRate[] matching = rates.stream()
+                        .filter(rate -> rate.getZipPrefix().length() == prefixLength)
+                        .sorted(Comparator.comparingInt(rate -> prefixValue(rate.getZipPrefix())))
+                        .toArray(ShippingRate[]::new);
+
+                table.prefixes[length] = new int[matching.length];
+                table.baseCents[length] = new long[matching.length];
+                table.perKgCents[length] = new long[matching.length];
+                for (int i = 0; i < matching.length; i++) {
+                    table.prefixes[length][i] = prefixValue(matching[i].getZipPrefix());
+                    table.baseCents[length][i] = toCents(matching[i].getBaseCost());
+                    table.perKgCents[length][i] = toCents(matching[i].getCostPerKg());
+                }
+            }
+            return table;
+        }
+
+        private static int prefixValue(String prefix) {
+            return prefix.isEmpty() ? 0 : Integer.parseInt(prefix);
+        }
+
+        private static long toCents(BigDecimal amount) {
+            return Objects.requireNonNullElse(amount, BigDecimal.ZERO).movePointRight(2).longValueExact();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ordermanagement.service;
+
+import com.ordermanagement.domain.entity.ShippingRate;
+import com.ordermanagement.dto.shipping.ShippingRateRequest;
+import com.ordermanagement.dto.shipping.ShippingRateResponse;
+import com.ordermanagement.exception.ResourceNotFoundException;
+import com.ordermanagement.repository.ShippingRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ShippingRateService {
+
+    private final ShippingRateRepository shippingRateRepository;
+    private final ShippingRateEngine shippingRateEngine;
+
+    // creates the rate for the prefix or replaces the existing one
+    @Transactional
+    public ShippingRateResponse save(ShippingRateRequest request) {
+        ShippingRate rate = shippingRateRepository.findByZipPrefix(request.getZipPrefix())
+                .orElseGet(() -> ShippingRate.builder().zipPrefix(request.getZipPrefix()).build());
+
+        rate.setBaseCost(request.getBaseCost());
+        rate.setCostPerKg(request.getCostPerKg() != null ? request.getCostPerKg() : BigDecimal.ZERO);
+        rate.setActive(true);
+
+        shippingRateRepository.save(rate);
+        shippingRateEngine.reloadAfterCommit();
+
+        return ShippingRateResponse.fromEntity(rate);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ShippingRateResponse> findAll() {
+        return shippingRateRepository.findAll().stream()
+                .map(ShippingRateResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deactivate(Long id) {
+        ShippingRate rate = shippingRateRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Shipping rate", id));
+
+        rate.setActive(false);
+        shippingRateRepository.save(rate);
+        shippingRateEngine.reloadAfterCommit();
+    }
+
+    public void reload() {
+        shippingRateEngine.reload();
+    }
+}
@@ -0,0 +1,82 @@
+-- puts back what partitioning orders (V9) gave up.
+--
+-- order numbers: the unique constraint on a partitioned table has to include created_at, so two
+-- orders could share a number as long as they were created at different times. every number is
+-- now also recorded in order_numbers, an ordinary table, by a trigger in the inserting
+-- transaction; a duplicate fails the insert. rows stay when an order is archived or its
+-- partition detached, so a number is never handed out twice
+create table order_numbers (
+    order_number varchar(20) primary key,
+    order_id bigint not null
+);
+
+insert into order_numbers (order_number, order_id)
+select order_number, id from orders
+union all
+select order_number, id from orders_archive;
+
+create or replace function record_order_number() returns trigger as $$
+begin
+    insert into order_numbers (order_number, order_id) values (new.order_number, new.id);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger orders_record_order_number
+    after insert on orders
+    for each row execute function record_order_number();
+
+-- order items: the foreign key to orders went with V9 and its on delete cascade with it. deleting
+-- an order removes its items again, except while ensure_monthly_partition moves the order
+-- between partitions
+create or replace function delete_order_items() returns trigger as $$
+begin
+    if current_setting('orders.moving_partition', true) = 'on' then
+        return null;
+    end if;
+    delete from order_items where order_id = old.id;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger orders_delete_items
+    after delete on orders
+    for each row execute function delete_order_items();
+
+-- partitions: a month can't be attached while the default partition holds rows for it, so once
+-- something landed there the old function failed for that month on every run. the partition is
+-- now built detached, those rows are moved into it, and then it is attached. the number of rows
+-- moved is returned so the maintenance job can report it: it means maintenance fell behind
+drop function ensure_monthly_partition(text, date);
+
+create function ensure_monthly_partition(parent text, month_start date) returns bigint as $$
+declare
+    partition_name text := parent || '_' || to_char(month_start, 'YYYY_MM');
+    default_name text := parent || '_default';
+    month_end date := (month_start + interval '1 month')::date;
+    moved bigint;
+begin
+    if to_regclass(partition_name) is not null then
+        return 0;
+    end if;
+
+    execute format('create table %I (like %I including defaults)', partition_name, parent);
+
+    -- keeps rows for the month from arriving in the default partition until the attach is done
+    execute format('lock table %I in share row exclusive mode', default_name);
+    perform set_config('orders.moving_partition', 'on', true);
+    execute format('with moved as (delete from %I where created_at >= %L and created_at < %L returning *) '
+                   || 'insert into %I select * from moved',
+                   default_name, month_start, month_end, partition_name);
+    get diagnostics moved = row_count;
+    perform set_config('orders.moving_partition', 'off', true);
+
+    execute format('alter table %I attach partition %I for values from (%L) to (%L)',
+                   parent, partition_name, month_start, month_end);
+
+    if moved > 0 then
+        raise warning 'moved % rows from % into %', moved, default_name, partition_name;
+    end if;
+    return moved;
+end;
+$$ language plpgsql;
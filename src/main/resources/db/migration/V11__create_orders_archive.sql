@@ -0,0 +1,18 @@
+-- delivered and cancelled orders past the archive age, moved out of orders/order_items by the
+-- archiver. each order is one row holding the order as returned by the api (items included);
+-- the few columns needed to find it and check who may read it are kept alongside
+create table orders_archive (
+    id bigint primary key,
+    order_number varchar(20) not null unique,
+    customer_id bigint not null,
+    owner_user_id bigint not null,
+    status varchar(20) not null,
+    created_at timestamp not null,
+    archived_at timestamp not null default current_timestamp,
+    document jsonb not null
+);
+
+create index idx_orders_archive_customer on orders_archive(customer_id);
+
+-- candidates for the archiver: terminal orders, oldest first
+create index idx_orders_terminal_created_at on orders(created_at, id) where status in ('DELIVERED', 'CANCELLED');
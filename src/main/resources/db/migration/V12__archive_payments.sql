@@ -0,0 +1,22 @@
+-- archived orders take their payment with them: payments.order_id lost its foreign key in V9, so
+-- a payment left behind would point at an order that no longer exists. the payment is kept as
+-- returned by the api, next to the order document
+alter table orders_archive add column payment jsonb;
+
+-- payments of orders archived before this migration
+update orders_archive a
+set payment = jsonb_build_object(
+        'id', p.id,
+        'orderId', a.id,
+        'orderNumber', a.order_number,
+        'method', p.method,
+        'status', p.status,
+        'amount', p.amount,
+        'transactionId', p.transaction_id,
+        'installments', p.installments,
+        'paidAt', p.paid_at,
+        'createdAt', p.created_at)
+from payments p
+where p.order_id = a.id;
+
+delete from payments p using orders_archive a where p.order_id = a.id;
@@ -0,0 +1,6 @@
+-- archived orders are listed with the live ones: in a customer's history, newest first, and in
+-- exports by creation date
+create index idx_orders_archive_customer_created_at on orders_archive(customer_id, created_at desc);
+drop index idx_orders_archive_customer;
+
+create index idx_orders_archive_created_at on orders_archive(created_at, id);
@@ -0,0 +1,15 @@
+-- product search. search_vector is kept up to date by postgres itself; name and sku weigh more
+-- than the description when ranking. the 'simple' configuration is used because the catalog mixes
+-- languages and brand names, which stemmers for one language would mangle
+alter table products add column search_vector tsvector generated always as (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(sku, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) stored;
+
+create index idx_products_search on products using gin(search_vector) where active = true;
+
+-- trigram index for the fallback used when the full-text query finds nothing (typos, partial words)
+create extension if not exists pg_trgm;
+
+create index idx_products_name_trgm on products using gin(lower(name) gin_trgm_ops) where active = true;
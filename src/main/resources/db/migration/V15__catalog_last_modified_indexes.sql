@@ -0,0 +1,4 @@
+-- max(coalesce(updated_at, created_at)) backs the validators for conditional catalog GETs; with
+-- these it is read from the end of an index instead of scanning the table
+create index idx_products_last_modified on products((coalesce(updated_at, created_at)));
+create index idx_categories_last_modified on categories((coalesce(updated_at, created_at)));
@@ -0,0 +1,40 @@
+-- version of the active category list: names, descriptions, active flags and product counts. the
+-- triggers below bump it whenever one of those changes, so the validators of GET /api/categories
+-- are one row read instead of count() and max() over categories and products per request
+create table category_list_version (
+    id smallint primary key check (id = 1),
+    version bigint not null,
+    modified_at timestamp not null
+);
+
+insert into category_list_version (id, version, modified_at) values (1, 1, current_timestamp);
+
+create function bump_category_list_version() returns trigger as $$
+begin
+    update category_list_version set version = version + 1, modified_at = clock_timestamp() where id = 1;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger categories_list_version_insert_delete after insert or delete on categories
+    for each row execute function bump_category_list_version();
+
+-- hibernate writes every column on update, so the changed values are compared rather than relying
+-- on "update of": saving a product's stock must not invalidate the list
+create trigger categories_list_version_update after update on categories
+    for each row when (old.name is distinct from new.name
+        or old.description is distinct from new.description
+        or old.active is distinct from new.active)
+    execute function bump_category_list_version();
+
+-- product counts include inactive products, so only adding, removing or moving a product counts
+create trigger products_list_version_insert_delete after insert or delete on products
+    for each row execute function bump_category_list_version();
+
+create trigger products_list_version_update after update on products
+    for each row when (old.category_id is distinct from new.category_id)
+    execute function bump_category_list_version();
+
+-- only the max() this replaces read these (V15)
+drop index idx_products_last_modified;
+drop index idx_categories_last_modified;
@@ -0,0 +1,11 @@
+-- inventory reservations - append-only journal written by the in-memory inventory ledger.
+-- positive quantities take stock, negative ones give it back. the ledger flush folds the
+-- journal into products.stock_quantity and deletes the folded rows in the same statement
+create table inventory_reservations (
+    id bigserial primary key,
+    product_id bigint not null references products(id),
+    quantity integer not null,
+    created_at timestamp not null default current_timestamp
+);
+
+create index idx_inventory_reservations_product on inventory_reservations(product_id);
@@ -0,0 +1,10 @@
+-- hibernate now takes ids from the bigserial sequences in blocks of 50 (pooled optimizer)
+-- so inserts can be batched. column defaults stay in place for hand-written inserts; a
+-- plain nextval just consumes a whole block, so both paths never hand out the same id
+alter sequence users_id_seq increment by 50;
+alter sequence categories_id_seq increment by 50;
+alter sequence products_id_seq increment by 50;
+alter sequence customers_id_seq increment by 50;
+alter sequence orders_id_seq increment by 50;
+alter sequence order_items_id_seq increment by 50;
+alter sequence payments_id_seq increment by 50;
@@ -0,0 +1,23 @@
+-- coupons - discount rules evaluated at checkout
+create table coupons (
+    id bigserial primary key,
+    code varchar(30) not null unique,
+    discount_type varchar(20) not null,
+    discount_value decimal(10, 2) not null,
+    min_subtotal decimal(10, 2),
+    category_id bigint references categories(id),
+    usage_limit integer,
+    used_count integer not null default 0,
+    expires_at timestamp,
+    active boolean not null default true,
+    created_at timestamp not null default current_timestamp,
+    updated_at timestamp
+);
+
+alter sequence coupons_id_seq increment by 50;
+
+-- the coupon that used to be hard-coded in OrderService
+insert into coupons (code, discount_type, discount_value) values ('FIRST10', 'PERCENTAGE', 10.00);
+
+-- which coupon was applied to an order
+alter table orders add column coupon_code varchar(30);
@@ -0,0 +1,20 @@
+-- shipping rates by cep prefix. the rate with the longest prefix matching the destination
+-- wins; the empty prefix is the fallback for everything else
+create table shipping_rates (
+    id bigserial primary key,
+    zip_prefix varchar(8) not null unique check (zip_prefix ~ '^[0-9]{0,8}$'),
+    base_cost decimal(10, 2) not null,
+    cost_per_kg decimal(10, 2) not null default 0,
+    active boolean not null default true,
+    created_at timestamp not null default current_timestamp,
+    updated_at timestamp
+);
+
+alter sequence shipping_rates_id_seq increment by 50;
+
+-- keeps the flat 15.00 that OrderService used to charge until real tables are loaded
+insert into shipping_rates (zip_prefix, base_cost, cost_per_kg) values ('', 15.00, 0);
+
+-- package dimensions used to price shipping. products without them ship at the base cost
+alter table products add column weight_grams integer check (weight_grams >= 0);
+alter table products add column volume_cm3 integer check (volume_cm3 >= 0);
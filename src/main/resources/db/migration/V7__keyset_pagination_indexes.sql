@@ -0,0 +1,8 @@
+-- indexes backing the cursor listings: each one matches the listing's sort order so a page is
+-- a range scan that starts right after the cursor, however deep the client has scrolled
+create index idx_orders_created_at_id on orders(created_at desc, id desc);
+create index idx_orders_status_created_at_id on orders(status, created_at desc, id desc);
+create index idx_products_active_name_id on products(name, id) where active = true;
+
+-- covered by idx_orders_status_created_at_id
+drop index idx_orders_status;
@@ -0,0 +1,16 @@
+-- denormalized so order list screens can be served from the orders table alone.
+-- customer_name is the buyer's name when the order was placed, like the shipping address
+alter table orders add column customer_name varchar(100);
+alter table orders add column item_count integer not null default 0;
+
+update orders o set customer_name = u.name
+from customers c join users u on u.id = c.user_id
+where c.id = o.customer_id;
+
+update orders o set item_count = t.quantity
+from (select order_id, sum(quantity) as quantity from order_items group by order_id) t
+where t.order_id = o.id;
+
+-- "my orders" lists are per customer, newest first
+create index idx_orders_customer_created_at on orders(customer_id, created_at desc);
+drop index idx_orders_customer;
@@ -0,0 +1,72 @@
+-- orders and order_items become range partitioned by created_at, one partition per month.
+-- queries bounded or ordered by created_at only touch the partitions they need, and an old
+-- month can be detached as a plain table without rewriting anything.
+--
+-- postgres requires the partition key in every unique constraint, so the primary keys become
+-- (id, created_at) and order_number is unique per created_at (numbers are already unique by
+-- construction). foreign keys pointing at orders can't be kept for the same reason.
+
+alter table payments drop constraint payments_order_id_fkey;
+alter table order_items drop constraint order_items_order_id_fkey;
+
+alter table orders rename to orders_legacy;
+alter table order_items rename to order_items_legacy;
+
+create table orders (like orders_legacy including defaults) partition by range (created_at);
+create table order_items (like order_items_legacy including defaults) partition by range (created_at);
+
+-- creates the month's partition of the given table if it doesn't exist yet. called here and by
+-- the application's partition maintenance job
+create or replace function ensure_monthly_partition(parent text, month_start date) returns void as $$
+begin
+    execute format('create table if not exists %I partition of %I for values from (%L) to (%L)',
+                   parent || '_' || to_char(month_start, 'YYYY_MM'), parent,
+                   month_start, (month_start + interval '1 month')::date);
+end;
+$$ language plpgsql;
+
+-- every month that has data, up to three months ahead
+do $$
+declare
+    month_start date := date_trunc('month', least(
+            (select min(created_at) from orders_legacy),
+            (select min(created_at) from order_items_legacy),
+            current_timestamp))::date;
+    last_month date := (date_trunc('month', current_timestamp) + interval '3 months')::date;
+begin
+    while month_start <= last_month loop
+        perform ensure_monthly_partition('orders', month_start);
+        perform ensure_monthly_partition('order_items', month_start);
+        month_start := (month_start + interval '1 month')::date;
+    end loop;
+end $$;
+
+-- safety net so inserts never fail if maintenance falls behind; kept empty in normal operation
+create table orders_default partition of orders default;
+create table order_items_default partition of order_items default;
+
+insert into orders select * from orders_legacy;
+insert into order_items select * from order_items_legacy;
+
+-- the id sequences belong to the legacy tables and would be dropped with them
+alter sequence orders_id_seq owned by none;
+alter sequence order_items_id_seq owned by none;
+
+drop table order_items_legacy;
+drop table orders_legacy;
+
+alter sequence orders_id_seq owned by orders.id;
+alter sequence order_items_id_seq owned by order_items.id;
+
+alter table orders add primary key (id, created_at);
+alter table orders add constraint orders_order_number_key unique (order_number, created_at);
+alter table orders add constraint orders_customer_id_fkey foreign key (customer_id) references customers(id);
+
+create index idx_orders_customer_created_at on orders(customer_id, created_at desc);
+create index idx_orders_created_at_id on orders(created_at desc, id desc);
+create index idx_orders_status_created_at_id on orders(status, created_at desc, id desc);
+
+alter table order_items add primary key (id, created_at);
+alter table order_items add constraint order_items_product_id_fkey foreign key (product_id) references products(id);
+
+create index idx_order_items_order on order_items(order_id);
@@ -0,0 +1,84 @@
+package com.ordermanagement.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// throughput of next() under contention. a node issues at most 4096 numbers per wall-clock second,
+// so on the real clock this would only measure the wait for the next second; the clock here moves
+// on a second every 4096 reads instead, which keeps the cas loop and the formatting on the hot
+// path. not part of the test run, start it with
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.ordermanagement.service.NodeSequenceOrderNumberGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeSequenceOrderNumberGeneratorBenchmark {
+
+    private NodeSequenceOrderNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new NodeSequenceOrderNumberGenerator(() -> 5L, () -> 0L, new CountingClock());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String eightThreads() {
+        return generator.next();
+    }
+
+    private static final class CountingClock extends Clock {
+
+        private final long startSecond = System.currentTimeMillis() / 1000;
+        private final AtomicLong reads = new AtomicLong();
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(startSecond + reads.getAndIncrement() / 4096);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NodeSequenceOrderNumberGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
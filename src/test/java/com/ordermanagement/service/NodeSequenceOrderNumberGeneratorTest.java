@@ -0,0 +1,160 @@
+package com.ordermanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NodeSequenceOrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 1_000;
+    private static final long SECOND = 1_760_000_000L;
+
+    @Test
+    void concurrentCallersGetUniqueIncreasingNumbers() throws Exception {
+        NodeSequenceOrderNumberGenerator generator =
+                new NodeSequenceOrderNumberGenerator(() -> 5L, () -> 0L, Clock.systemDefaultZone());
+        Set<String> numbers = ConcurrentHashMap.newKeySet(THREADS * PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    List<String> issued = new ArrayList<>(PER_THREAD);
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        issued.add(generator.next());
+                    }
+                    return issued;
+                }));
+            }
+
+            start.countDown();
+            for (Future<List<String>> worker : workers) {
+                List<String> issued = worker.get(60, TimeUnit.SECONDS);
+                numbers.addAll(issued);
+                // fixed width, so each caller's numbers sort in the order they were handed out
+                for (int i = 1; i < issued.size(); i++) {
+                    assertTrue(issued.get(i - 1).compareTo(issued.get(i)) < 0,
+                            issued.get(i - 1) + " was issued before " + issued.get(i));
+                }
+            }
+
+            assertEquals(THREADS * PER_THREAD, numbers.size());
+            assertTrue(numbers.stream().allMatch(number -> number.matches("ORD-\\d{8}-[0-9A-Z]{7}")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        NodeSequenceOrderNumberGenerator first =
+                new NodeSequenceOrderNumberGenerator(() -> 1L, () -> 0L, Clock.systemDefaultZone());
+        NodeSequenceOrderNumberGenerator second =
+                new NodeSequenceOrderNumberGenerator(() -> 2L, () -> 0L, Clock.systemDefaultZone());
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 5_000; i++) {
+            numbers.add(first.next());
+            numbers.add(second.next());
+        }
+        assertEquals(10_000, numbers.size());
+    }
+
+    @Test
+    void waitsForTheClockOnceASecondIsUsedUp() throws Exception {
+        SteppingClock clock = new SteppingClock(SECOND);
+        NodeSequenceOrderNumberGenerator generator = new NodeSequenceOrderNumberGenerator(() -> 5L, () -> 0L, clock);
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 4096; i++) {
+            numbers.add(generator.next());
+        }
+        assertEquals(4096, numbers.size());
+
+        assertNextWaitsFor(generator, clock, SECOND + 1);
+    }
+
+    @Test
+    void resumesAfterTheLastSecondTheNodeWasUsed() throws Exception {
+        SteppingClock clock = new SteppingClock(SECOND);
+        NodeSequenceOrderNumberGenerator generator =
+                new NodeSequenceOrderNumberGenerator(() -> 5L, () -> SECOND, clock);
+
+        assertNextWaitsFor(generator, clock, SECOND + 1);
+    }
+
+    // next() must not return until the clock reaches the given second, and then hands out its first number
+    private void assertNextWaitsFor(NodeSequenceOrderNumberGenerator generator, SteppingClock clock, long second)
+            throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> pending = executor.submit(generator::next);
+            assertTrue(clock.waited.await(5, TimeUnit.SECONDS), "next() did not wait for the clock");
+            assertFalse(pending.isDone());
+
+            clock.set(second);
+            String expected = new NodeSequenceOrderNumberGenerator(() -> 5L, () -> 0L,
+                    Clock.fixed(Instant.ofEpochSecond(second), ZoneOffset.UTC)).next();
+            assertEquals(expected, pending.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // a clock that only moves when told to; the generator reads millis() only when it has to wait
+    private static final class SteppingClock extends Clock {
+
+        private final AtomicLong millis;
+        private final CountDownLatch waited = new CountDownLatch(1);
+
+        SteppingClock(long epochSecond) {
+            this.millis = new AtomicLong(epochSecond * 1000);
+        }
+
+        void set(long epochSecond) {
+            millis.set(epochSecond * 1000);
+        }
+
+        @Override
+        public long millis() {
+            waited.countDown();
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
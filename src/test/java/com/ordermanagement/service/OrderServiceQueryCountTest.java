@@ -0,0 +1,202 @@
+package com.ordermanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermanagement.domain.entity.Category;
+import com.ordermanagement.domain.entity.Customer;
+import com.ordermanagement.domain.entity.Order;
+import com.ordermanagement.domain.entity.OrderItem;
+import com.ordermanagement.domain.entity.Payment;
+import com.ordermanagement.domain.entity.Product;
+import com.ordermanagement.domain.entity.User;
+import com.ordermanagement.domain.enums.OrderStatus;
+import com.ordermanagement.domain.enums.PaymentMethod;
+import com.ordermanagement.domain.enums.PaymentStatus;
+import com.ordermanagement.domain.enums.UserRole;
+import com.ordermanagement.dto.common.PageResponse;
+import com.ordermanagement.dto.order.OrderResponse;
+import com.ordermanagement.dto.order.OrderSummaryResponse;
+import com.ordermanagement.repository.OrderArchiveRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+// findMyOrders must cost the same three statements (count, ids, details) however many orders,
+// items and payments are on the page. runs against postgres because the migrations need it
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(OrderService.class)
+class OrderServiceQueryCountTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private CustomerService customerService;
+    @MockitoBean
+    private ProductService productService;
+    @MockitoBean
+    private OrderNumberGenerator orderNumberGenerator;
+    @MockitoBean
+    private CouponRegistry couponRegistry;
+    @MockitoBean
+    private ShippingRateEngine shippingRateEngine;
+    @MockitoBean
+    private OrderStatusCounters orderStatusCounters;
+    @MockitoBean
+    private OrderCache orderCache;
+    @MockitoBean
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Test
+    void findMyOrdersLoadsAPageInThreeQueries() {
+        Customer customer = persistCustomer();
+        Category category = entityManager.persist(Category.builder().name("Shoes").active(true).build());
+        Product first = persistProduct(category, "SKU-QC-1");
+        Product second = persistProduct(category, "SKU-QC-2");
+        for (int i = 0; i < 5; i++) {
+            persistOrder(customer, i, first, second);
+        }
+        entityManager.flush();
+        // start from an empty persistence context, otherwise lazy loads would be served from it
+        entityManager.clear();
+        when(customerService.getCurrentCustomerEntity()).thenReturn(entityManager.find(Customer.class, customer.getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PageResponse<OrderResponse> page = orderService.findMyOrders(PageRequest.of(0, 4, Sort.by("id")));
+
+        assertEquals(4, page.getContent().size());
+        assertEquals(5, page.getTotalElements());
+        page.getContent().forEach(order -> assertEquals(2, order.getItems().size()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findMyOrdersIncludesArchivedOrders() throws Exception {
+        Customer customer = persistCustomer();
+        Category category = entityManager.persist(Category.builder().name("Shoes").active(true).build());
+        Product product = persistProduct(category, "SKU-QC-1");
+        persistOrder(customer, 0, product);
+        persistOrder(customer, 1, product);
+        OrderResponse archived = OrderResponse.builder()
+                .id(-1L)
+                .orderNumber("ORD-QC-ARCHIVED")
+                .customerId(customer.getId())
+                .status(OrderStatus.DELIVERED)
+                .items(List.of())
+                .total(new BigDecimal("10.00"))
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .build();
+        String document = objectMapper.writeValueAsString(archived);
+        entityManager.getEntityManager().createNativeQuery(
+                        "insert into orders_archive (id, order_number, customer_id, owner_user_id, status, created_at, document) " +
+                        "values (?1, ?2, ?3, ?4, ?5, ?6, cast(?7 as jsonb))")
+                .setParameter(1, archived.getId())
+                .setParameter(2, archived.getOrderNumber())
+                .setParameter(3, customer.getId())
+                .setParameter(4, customer.getUser().getId())
+                .setParameter(5, archived.getStatus().name())
+                .setParameter(6, archived.getCreatedAt())
+                .setParameter(7, document)
+                .executeUpdate();
+        entityManager.flush();
+        entityManager.clear();
+        when(customerService.getCurrentCustomerEntity()).thenReturn(entityManager.find(Customer.class, customer.getId()));
+        when(orderArchiveRepository.findDocumentsByIdIn(List.of(archived.getId()))).thenReturn(List.of(document));
+
+        PageResponse<OrderResponse> page = orderService.findMyOrders(PageRequest.of(0, 10));
+
+        // newest first: the two live orders, then the archived one
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("ORD-QC-1", "ORD-QC-0", "ORD-QC-ARCHIVED"),
+                page.getContent().stream().map(OrderResponse::getOrderNumber).toList());
+
+        PageResponse<OrderSummaryResponse> summaries = orderService.findMyOrderSummaries(PageRequest.of(1, 2));
+        assertEquals(3, summaries.getTotalElements());
+        assertEquals(List.of("ORD-QC-ARCHIVED"),
+                summaries.getContent().stream().map(OrderSummaryResponse::getOrderNumber).toList());
+    }
+
+    private Customer persistCustomer() {
+        User user = entityManager.persist(User.builder()
+                .name("Query Count")
+                .email("query-count@example.com")
+                .password("secret")
+                .role(UserRole.CUSTOMER)
+                .active(true)
+                .build());
+        return entityManager.persist(Customer.builder().user(user).cpf("52998224725").build());
+    }
+
+    private Product persistProduct(Category category, String sku) {
+        return entityManager.persist(Product.builder()
+                .name("Product " + sku)
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(100)
+                .sku(sku)
+                .active(true)
+                .category(category)
+                .build());
+    }
+
+    private void persistOrder(Customer customer, int index, Product... products) {
+        Order order = Order.builder()
+                .orderNumber("ORD-QC-" + index)
+                .customer(customer)
+                .status(OrderStatus.PAID)
+                .build();
+        for (Product product : products) {
+            order.addItem(OrderItem.builder()
+                    .product(product)
+                    .quantity(1)
+                    .unitPrice(product.getPrice())
+                    .total(product.getPrice())
+                    .build());
+        }
+        order.setPayment(Payment.builder()
+                .order(order)
+                .method(PaymentMethod.PIX)
+                .status(PaymentStatus.PAID)
+                .amount(order.getTotal())
+                .build());
+        entityManager.persist(order);
+    }
+}